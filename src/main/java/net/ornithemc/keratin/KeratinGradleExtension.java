@@ -2,10 +2,12 @@ package net.ornithemc.keratin;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -16,15 +18,18 @@ import org.apache.commons.io.FileUtils;
 
 import org.gradle.api.Action;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.artifacts.dsl.DependencyHandler;
 import org.gradle.api.internal.tasks.DefaultSourceSetContainer;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.publish.PublicationContainer;
 import org.gradle.api.publish.PublishingExtension;
 import org.gradle.api.publish.maven.MavenPublication;
+import org.gradle.api.tasks.Delete;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.TaskContainer;
 import org.gradle.api.tasks.TaskProvider;
@@ -63,6 +68,7 @@ import net.ornithemc.keratin.api.task.build.CompressMappingsTask;
 import net.ornithemc.keratin.api.task.build.PrepareBuildTask;
 import net.ornithemc.keratin.api.task.decompiling.DecompileMinecraftWithCfrTask;
 import net.ornithemc.keratin.api.task.decompiling.DecompileMinecraftWithVineflowerTask;
+import net.ornithemc.keratin.api.task.decompiling.DecompilerThreads;
 import net.ornithemc.keratin.api.task.enigma.LaunchEnigmaTask;
 import net.ornithemc.keratin.api.task.generation.MakeBaseExceptionsTask;
 import net.ornithemc.keratin.api.task.generation.MakeBaseSignaturesTask;
@@ -74,7 +80,6 @@ import net.ornithemc.keratin.api.task.generation.SaveExceptionsTask;
 import net.ornithemc.keratin.api.task.generation.SaveSignaturesTask;
 import net.ornithemc.keratin.api.task.generation.SplitGeneratedJarTask;
 import net.ornithemc.keratin.api.task.javadoc.GenerateFakeSourceTask;
-import net.ornithemc.keratin.api.task.javadoc.MapMinecraftForJavadocTask;
 import net.ornithemc.keratin.api.task.mapping.ConvertMappingsFromTinyV1ToTinyV2Task;
 import net.ornithemc.keratin.api.task.mapping.DownloadIntermediaryTask;
 import net.ornithemc.keratin.api.task.mapping.FillIntermediaryTask;
@@ -125,6 +130,8 @@ import net.ornithemc.keratin.api.task.unpick.LoadUnpickDefinitionsTask;
 import net.ornithemc.keratin.api.task.unpick.MapUnpickDefinitionsToIntermediaryTask;
 import net.ornithemc.keratin.api.task.unpick.UnpickMinecraftTask;
 import net.ornithemc.keratin.cache.BuildNumbersCache;
+import net.ornithemc.keratin.cache.ClassPathIndex;
+import net.ornithemc.keratin.cache.MappingsGraphSession;
 import net.ornithemc.keratin.files.IntermediaryDevelopmentFiles;
 import net.ornithemc.keratin.files.KeratinFiles;
 import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
@@ -136,7 +143,6 @@ import net.ornithemc.keratin.maven.MetaSourcedSingleBuildMavenArtifacts;
 import net.ornithemc.keratin.util.Versioned;
 
 import net.ornithemc.mappingutils.PropagationDirection;
-import net.ornithemc.mappingutils.io.Format;
 import net.ornithemc.mappingutils.io.diff.graph.VersionGraph;
 
 public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
@@ -153,11 +159,19 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 	private final Property<String> globalCacheDir;
 	private final Property<String> localCacheDir;
 	private final Property<String> versionsManifestUrl;
+	private final Property<Boolean> offline;
+	private final Property<Integer> maxParallelVersions;
+	private final Property<String> workerMaxHeapSize;
+	private final Property<Boolean> pipelineVersions;
+	private final Property<Boolean> incrementalProcessing;
 	private final ListProperty<String> minecraftVersions;
 	private final Property<Integer> intermediaryGen;
 
     private final Property<UnpickVersion> unpickVersions;
 
+	private final Provider<ClassPathIndex> classPathIndex;
+	private final Provider<MappingsGraphSession> graphSession;
+
 	private final Versioned<String, MinecraftVersion> minecraftVersionsById;
 	private final Versioned<String, VersionInfo> versionInfos;
 	private final Versioned<String, VersionDetails> versionDetails;
@@ -192,6 +206,20 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 		this.versionsManifestUrl = this.project.getObjects().property(String.class);
 		this.versionsManifestUrl.convention(Constants.VERSIONS_MANIFEST_URL);
 		this.versionsManifestUrl.finalizeValueOnRead();
+		this.offline = this.project.getObjects().property(Boolean.class);
+		this.offline.convention(this.project.getGradle().getStartParameter().isOffline());
+		this.offline.finalizeValueOnRead();
+		this.maxParallelVersions = this.project.getObjects().property(Integer.class);
+		this.maxParallelVersions.convention(Runtime.getRuntime().availableProcessors());
+		this.maxParallelVersions.finalizeValueOnRead();
+		this.workerMaxHeapSize = this.project.getObjects().property(String.class);
+		this.workerMaxHeapSize.finalizeValueOnRead();
+		this.pipelineVersions = this.project.getObjects().property(Boolean.class);
+		this.pipelineVersions.convention(false);
+		this.pipelineVersions.finalizeValueOnRead();
+		this.incrementalProcessing = this.project.getObjects().property(Boolean.class);
+		this.incrementalProcessing.convention(false);
+		this.incrementalProcessing.finalizeValueOnRead();
 
 		this.minecraftVersions = this.project.getObjects().listProperty(String.class);
 		this.minecraftVersions.convention(Collections.emptyList());
@@ -204,6 +232,20 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
         this.unpickVersions.convention(UnpickVersion.V2);
         this.unpickVersions.finalizeValueOnRead();
 
+		this.classPathIndex = this.project.getGradle().getSharedServices().registerIfAbsent(ClassPathIndex.NAME, ClassPathIndex.class, spec -> { });
+		this.graphSession = this.project.getGradle().getSharedServices().registerIfAbsent(MappingsGraphSession.NAME, MappingsGraphSession.class, spec -> {
+			spec.getParameters().getCheckpointsDirectory().set(this.project.provider(() -> files.getLocalCache().getMappingsGraphCheckpointsDirectory()));
+			spec.getParameters().getDummyMappingsDirectory().set(this.project.provider(() -> files.getGlobalCache().getMappingsCache().getDummyMappingsDirectory()));
+		});
+		// pipelined versions are each decompiled by a task of their own, otherwise
+		// a single task decompiles all versions and limits how many run at once
+		this.project.getGradle().getSharedServices().registerIfAbsent(DecompilerThreads.NAME, DecompilerThreads.class, spec -> {
+			spec.getMaxParallelUsages().set(this.pipelineVersions.map(pipelined -> pipelined ? this.maxParallelVersions.get() : 1));
+			spec.getParameters().getThreads().set(Runtime.getRuntime().availableProcessors());
+			spec.getParameters().getMaxParallelVersions().set(this.maxParallelVersions);
+			spec.getParameters().getVersions().set(this.minecraftVersions.map(List::size));
+		});
+
 		this.minecraftVersionsById = new Versioned<>(minecraftVersionId -> {
 			return MinecraftVersion.parse(this, minecraftVersionId);
 		});
@@ -304,6 +346,31 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 		return versionsManifestUrl;
 	}
 
+	@Override
+	public Property<Boolean> getOffline() {
+		return offline;
+	}
+
+	@Override
+	public Property<Integer> getMaxParallelVersions() {
+		return maxParallelVersions;
+	}
+
+	@Override
+	public Property<String> getWorkerMaxHeapSize() {
+		return workerMaxHeapSize;
+	}
+
+	@Override
+	public Property<Boolean> getPipelineVersions() {
+		return pipelineVersions;
+	}
+
+	@Override
+	public Property<Boolean> getIncrementalProcessing() {
+		return incrementalProcessing;
+	}
+
 	@Override
 	public void minecraftVersion(String minecraftVersion) {
 		minecraftVersions(minecraftVersion);
@@ -331,7 +398,15 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
         return unpickVersions;
     }
 
-    private void findMinecraftVersions(TaskSelection selection, Set<MinecraftVersion> minecraftVersions) throws IOException {
+	public Provider<ClassPathIndex> getClassPathIndex() {
+		return classPathIndex;
+	}
+
+	public Provider<MappingsGraphSession> getGraphSession() {
+		return graphSession;
+	}
+
+    private void findMinecraftVersions(TaskSelection selection, Set<String> minecraftVersions) throws IOException {
 		if (selection == TaskSelection.INTERMEDIARY) {
 			File dir = files.getIntermediaryDevelopmentFiles().getMappingsDirectory();
 
@@ -352,14 +427,14 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 					continue;
 				}
 
-				minecraftVersions.add(MinecraftVersion.parse(this, version));
+				minecraftVersions.add(version);
 			}
 		}
 		if (selection == TaskSelection.MAPPINGS) {
 			File dir = files.getMappingsDevelopmentFiles().getMappingsDirectory();
-			VersionGraph graph = VersionGraph.of(Format.TINY_V2, dir.toPath());
+			VersionGraph graph = graphSession.get().getGraph(dir);
 
-			graph.walk(version -> minecraftVersions.add(MinecraftVersion.parse(this, version.toString())), path -> { });
+			graph.walk(version -> minecraftVersions.add(version.toString()), path -> { });
 		}
 	}
 
@@ -408,15 +483,22 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 
 		List<String> selectedMinecraftVersions = minecraftVersions.get();
 
+		Set<String> minecraftVersionStrings = new LinkedHashSet<>();
 		Set<MinecraftVersion> minecraftVersions = new LinkedHashSet<>();
 		Set<String> minecraftVersionIds = new LinkedHashSet<>();
 
 		if (selectedMinecraftVersions.isEmpty()) {
-			findMinecraftVersions(selection, minecraftVersions);
+			findMinecraftVersions(selection, minecraftVersionStrings);
 		} else {
-			for (String minecraftVersion : selectedMinecraftVersions) {
-				minecraftVersions.add(MinecraftVersion.parse(this, minecraftVersion));
-			}
+			minecraftVersionStrings.addAll(selectedMinecraftVersions);
+		}
+
+		// fetch the version details of all versions at once,
+		// rather than one by one as each version is parsed
+		minecraftVersionsById.prefetch(minecraftVersionStrings, Downloader.MAX_CONCURRENT_DOWNLOADS);
+
+		for (String minecraftVersion : minecraftVersionStrings) {
+			minecraftVersions.add(minecraftVersionsById.get(minecraftVersion));
 		}
 
 		for (MinecraftVersion minecraftVersion : minecraftVersions) {
@@ -426,6 +508,8 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 				minecraftVersionIds.add(minecraftVersion.server().id());
 		}
 
+		versionInfos.prefetch(minecraftVersionIds, Downloader.MAX_CONCURRENT_DOWNLOADS);
+
 		ConfigurationContainer configurations = project.getConfigurations();
 		DependencyHandler dependencies = project.getDependencies();
 		DefaultSourceSetContainer sourceSets = (DefaultSourceSetContainer) project.getExtensions().getByName("sourceSets");
@@ -545,20 +629,6 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 				task.getTargetNamespace().set(Mapper.INTERMEDIARY);
 				task.getTargetPackage().set("net/minecraft/unmapped/");
 				task.getNameLength().set(7);
-
-				task.configureMinecraftVersion(minecraftVersion -> {
-					// very old versions are only partially obfuscated
-					// so we provide a very strict obfuscation pattern
-					if (minecraftVersion.hasClient()) {
-						if (minecraftVersion.client().compareTo("0.0.0-rd.161348") < 0) { // early pre-classic
-							task.getObfuscationPatterns().add("^(?:(?!com/mojang/rubydung/RubyDung$).)*");
-						} else if (minecraftVersion.client().compareTo("0.0.0") < 0) { // late pre-classic
-							task.getObfuscationPatterns().add("^(?:(?!com/mojang/minecraft/RubyDung$).)*");
-						} else if (minecraftVersion.client().compareTo("0.31.0") < 0) {
-							task.getObfuscationPatterns().add("^(?:(?!com/mojang/minecraft/MinecraftApplet$).)*");
-						}
-					}
-				});
 			};
 
 			TaskProvider<?> generateIntermediary = tasks.register("generateIntermediary", GenerateNewIntermediaryTask.class, configureIntermediaryTask);
@@ -611,15 +681,15 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 			TaskProvider<?> fillIntermediary = tasks.register("fillIntermediary", FillIntermediaryTask.class, task -> {
 				task.dependsOn(splitIntermediary);
 			});
-			TaskProvider<?> mapMinecraftToIntermediary = tasks.register("mapMinecraftToIntermediary", MapMinecraftTask.class, task -> {
+			Stage mapMinecraftToIntermediaryStage = registerStage(tasks, minecraftVersions, "mapMinecraftToIntermediary", MapMinecraftTask.class, List.of(), task -> {
 				task.dependsOn(mergeJars, splitIntermediary);
 				task.getSourceNamespace().set(Mapper.OFFICIAL);
 				task.getTargetNamespace().set(Mapper.INTERMEDIARY);
 			});
-			TaskProvider<?> mergeIntermediaryJars = tasks.register("mergeIntermediaryMinecraftJars", MergeMinecraftJarsTask.class, task -> {
-				task.dependsOn(mapMinecraftToIntermediary);
+			Stage mergeIntermediaryJarsStage = registerStage(tasks, minecraftVersions, "mergeIntermediaryMinecraftJars", MergeMinecraftJarsTask.class, List.of(mapMinecraftToIntermediaryStage), task -> {
 				task.getNamespace().set(Mapper.INTERMEDIARY);
 			});
+			TaskProvider<?> mergeIntermediaryJars = mergeIntermediaryJarsStage.task();
 
 			TaskProvider<?> mapNestsToIntermediary = tasks.register("mapNestsToIntermediary", MapNestsTask.class, task -> {
 				task.dependsOn(splitNests, fillIntermediary);
@@ -694,15 +764,17 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 					task.getNamespace().set(Mapper.INTERMEDIARY);
 				});
 
-				TaskProvider<?> processMinecraft = tasks.register("processMinecraft", ProcessMinecraftTask.class, task -> {
-					task.dependsOn(mergeIntermediaryJars, mergeIntermediaryExceptions, mergeIntermediarySignatures, mergeIntermediaryNests);
+				Stage processMinecraftStage = registerStage(tasks, minecraftVersions, "processMinecraft", ProcessMinecraftTask.class, List.of(mergeIntermediaryJarsStage), task -> {
+					task.dependsOn(mergeIntermediaryExceptions, mergeIntermediarySignatures, mergeIntermediaryNests);
 					task.getForDecompile().set(false);
 				});
-				TaskProvider<?> unpickMinecraft = tasks.register("unpickMinecraft", UnpickMinecraftTask.class, task -> {
-					task.dependsOn(constantsJar, mapUnpickDefinitionsToIntermediary, processMinecraft);
+				Stage unpickMinecraftStage = registerStage(tasks, minecraftVersions, "unpickMinecraft", UnpickMinecraftTask.class, List.of(processMinecraftStage), task -> {
+					task.dependsOn(constantsJar, mapUnpickDefinitionsToIntermediary);
 					task.getUnpickConstantsJar().set(constantsJar.get().getArchiveFile().get().getAsFile());
 					task.getForDecompile().set(false);
 				});
+				TaskProvider<?> processMinecraft = processMinecraftStage.task();
+				TaskProvider<?> unpickMinecraft = unpickMinecraftStage.task();
 
 				TaskProvider<?> loadMappings = tasks.register("loadMappings", LoadMappingsFromGraphTask.class, task -> {
 					task.dependsOn(processMinecraft);
@@ -758,34 +830,32 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 					task.getTargetNamespace().set(Mapper.NAMED);
 				});
 
-				TaskProvider<?> processMinecraftForDecompile = tasks.register("processMinecraftForDecompile", ProcessMinecraftTask.class, task -> {
-					task.dependsOn(mergeIntermediaryJars, mergeIntermediaryExceptions, mergeIntermediarySignatures, mergeIntermediaryNests);
+				Stage processMinecraftForDecompile = registerStage(tasks, minecraftVersions, "processMinecraftForDecompile", ProcessMinecraftTask.class, List.of(mergeIntermediaryJarsStage), task -> {
+					task.dependsOn(mergeIntermediaryExceptions, mergeIntermediarySignatures, mergeIntermediaryNests);
 					task.getForDecompile().set(true);
 				});
-				TaskProvider<?> unpickMinecraftForDecompile = tasks.register("unpickMinecraftForDecompile", UnpickMinecraftTask.class, task -> {
-					task.dependsOn(constantsJar, mapUnpickDefinitionsToIntermediary, processMinecraftForDecompile);
+				Stage unpickMinecraftForDecompile = registerStage(tasks, minecraftVersions, "unpickMinecraftForDecompile", UnpickMinecraftTask.class, List.of(processMinecraftForDecompile), task -> {
+					task.dependsOn(constantsJar, mapUnpickDefinitionsToIntermediary);
 					task.getUnpickConstantsJar().set(constantsJar.get().getArchiveFile().get().getAsFile());
 					task.getForDecompile().set(true);
 				});
 
 				TaskProvider<?> buildProcessedMappings = tasks.register("buildProcessedMappings", BuildProcessedMappingsTask.class);
 
-				TaskProvider<?> mapProcessedMinecraftToNamedForDecompile = tasks.register("mapProcessedMinecraftToNamedForDecompile", MapProcessedMinecraftTask.class, task -> {
-					task.dependsOn(unpickMinecraftForDecompile, buildProcessedMappings);
+				Stage mapProcessedMinecraftToNamedForDecompile = registerStage(tasks, minecraftVersions, "mapProcessedMinecraftToNamedForDecompile", MapProcessedMinecraftTask.class, List.of(unpickMinecraftForDecompile), task -> {
+					task.dependsOn(buildProcessedMappings);
 					task.getSourceNamespace().set(Mapper.INTERMEDIARY);
 					task.getTargetNamespace().set(Mapper.NAMED);
 					task.getForDecompile().set(true);
 				});
 
-				TaskProvider<?> decompileWithCfr = tasks.register("decompileWithCfr", DecompileMinecraftWithCfrTask.class, task -> {
-					task.dependsOn(mapProcessedMinecraftToNamedForDecompile);
-				});
-				TaskProvider<?> decompileWithVineflower = tasks.register("decompileWithVineflower", DecompileMinecraftWithVineflowerTask.class, task -> {
-					task.dependsOn(mapProcessedMinecraftToNamedForDecompile);
-				});
+				Stage decompileWithCfr = registerStage(tasks, minecraftVersions, "decompileWithCfr", DecompileMinecraftWithCfrTask.class, List.of(mapProcessedMinecraftToNamedForDecompile), task -> { });
+				Stage decompileWithVineflower = registerStage(tasks, minecraftVersions, "decompileWithVineflower", DecompileMinecraftWithVineflowerTask.class, List.of(mapProcessedMinecraftToNamedForDecompile), task -> { });
 
-				TaskProvider<?> mapMinecraftForJavadoc = tasks.register("mapMinecraftForJavadoc", MapMinecraftForJavadocTask.class, task -> {
-					task.dependsOn(mergeIntermediaryJars, buildMappings);
+				// the javadoc jars are mapped along with the named jars
+				TaskProvider<?> mapMinecraftForJavadoc = tasks.register("mapMinecraftForJavadoc", task -> {
+					task.setGroup("keratin");
+					task.dependsOn(mapMinecraftToNamed);
 				});
 				TaskProvider<?> genFakeSource = tasks.register("generateFakeSource", GenerateFakeSourceTask.class, task -> {
 					task.dependsOn(buildMappings, mapMinecraftForJavadoc);
@@ -939,20 +1009,79 @@ public class KeratinGradleExtension implements KeratinGradleExtensionAPI {
 		}
 
 		tasks.withType(MinecraftTask.class, task -> {
-			task.getMinecraftVersions().set(minecraftVersions);
+			task.getMinecraftVersions().convention(minecraftVersions);
 		});
-		tasks.getByName("clean", task -> {
-			task.doFirst(t -> {
-				project.delete(files.getBuildFiles().getDirectory());
-			});
-			task.doLast(t -> {
-				try {
-					files.getBuildFiles().mkdirs();
-				} catch (IOException e) {
-					throw new RuntimeException("error creating local cache directory", e);
+		File buildFilesDirectory = files.getBuildFiles().getDirectory();
+
+		tasks.named("clean", Delete.class, task -> {
+			task.delete(buildFilesDirectory);
+			task.doLast(new CreateDirectory(buildFilesDirectory));
+		});
+	}
+
+	// a plain action rather than a lambda, so it only holds on to the directory,
+	// and not to the extension
+	private static class CreateDirectory implements Action<Task> {
+
+		private final File directory;
+
+		public CreateDirectory(File directory) {
+			this.directory = directory;
+		}
+
+		@Override
+		public void execute(Task task) {
+			try {
+				Files.createDirectories(directory.toPath());
+			} catch (IOException e) {
+				throw new UncheckedIOException("error creating local cache directory", e);
+			}
+		}
+	}
+
+	// registers a task for all versions at once, or, if versions are pipelined,
+	// one task per version that depends only on the same version's tasks of the
+	// previous stages, so that each version moves on as soon as its own work is
+	// done - the task with the stage's name then runs all versions of the stage
+	private <T extends MinecraftTask> Stage registerStage(TaskContainer tasks, Set<MinecraftVersion> minecraftVersions, String name, Class<T> type, List<Stage> previousStages, Action<? super T> action) {
+		if (!pipelineVersions.get()) {
+			TaskProvider<T> task = tasks.register(name, type, t -> {
+				for (Stage previousStage : previousStages) {
+					t.dependsOn(previousStage.task());
 				}
+
+				action.execute(t);
 			});
+
+			return new Stage(task, Map.of());
+		}
+
+		Map<MinecraftVersion, TaskProvider<?>> tasksByVersion = new LinkedHashMap<>();
+
+		for (MinecraftVersion minecraftVersion : minecraftVersions) {
+			tasksByVersion.put(minecraftVersion, tasks.register("%s_%s".formatted(sanitizeForTaskName(minecraftVersion.id()), name), type, t -> {
+				for (Stage previousStage : previousStages) {
+					t.dependsOn(previousStage.task(minecraftVersion));
+				}
+
+				t.getMinecraftVersions().set(List.of(minecraftVersion));
+				action.execute(t);
+			}));
+		}
+
+		TaskProvider<?> task = tasks.register(name, t -> {
+			t.setGroup("keratin");
+			t.dependsOn(tasksByVersion.values());
 		});
+
+		return new Stage(task, tasksByVersion);
+	}
+
+	private record Stage(TaskProvider<?> task, Map<MinecraftVersion, TaskProvider<?>> tasksByVersion) {
+
+		public TaskProvider<?> task(MinecraftVersion minecraftVersion) {
+			return tasksByVersion.isEmpty() ? task : tasksByVersion.get(minecraftVersion);
+		}
 	}
 
 	private String sanitizeForTaskName(String s) {
@@ -19,6 +19,16 @@ public interface KeratinGradleExtensionAPI {
 
 	Property<String> getVersionsManifestUrl();
 
+	Property<Boolean> getOffline();
+
+	Property<Integer> getMaxParallelVersions();
+
+	Property<String> getWorkerMaxHeapSize();
+
+	Property<Boolean> getPipelineVersions();
+
+	Property<Boolean> getIncrementalProcessing();
+
 	void minecraftVersion(String minecraftVersion);
 
 	void minecraftVersions(String... minecraftVersions);
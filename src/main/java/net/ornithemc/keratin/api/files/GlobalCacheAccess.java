@@ -13,6 +13,10 @@ public interface GlobalCacheAccess {
 
 	File getVersionsManifestJson();
 
+	File getChecksumsDirectory();
+
+	File getHttpCacheDirectory();
+
 	MetadataCacheAccess getMetadataCache();
 
 	GameJarsCacheAccess getGameJarsCache();
@@ -111,6 +115,9 @@ public interface GlobalCacheAccess {
 
 		File getNamedMappingsFile(String minecraftVersion, int build);
 
+
+		File getDummyMappingsDirectory();
+
 	}
 
 	interface ExceptionsCacheAccess {
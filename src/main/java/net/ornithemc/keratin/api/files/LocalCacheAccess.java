@@ -14,4 +14,6 @@ public interface LocalCacheAccess {
 
 	File getNestsBuildsJsonBackup();
 
+	File getMappingsGraphCheckpointsDirectory();
+
 }
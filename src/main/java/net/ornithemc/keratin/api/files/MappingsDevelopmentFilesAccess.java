@@ -38,6 +38,8 @@ public interface MappingsDevelopmentFilesAccess {
 
 		File getUnpickedProcessedIntermediaryJar(MinecraftVersion minecraftVersion);
 
+		File getUnpickedProcessedIntermediaryJarForDecompile(MinecraftVersion minecraftVersion);
+
 		File getTinyV1MappingsFile(String minecraftVersion);
 
 		File getTinyV2MappingsFile(String minecraftVersion);
@@ -54,6 +56,8 @@ public interface MappingsDevelopmentFilesAccess {
 
 		File getProcessedNamedJar(String minecraftVersion);
 
+		File getProcessedNamedJarForDecompile(String minecraftVersion);
+
 		File getJavadocNamedJar(String minecraftVersion);
 
 		File getFakeSourceDirectory(String minecraftVersion);
@@ -1,7 +1,11 @@
 package net.ornithemc.keratin.api.maven;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import net.ornithemc.keratin.api.MinecraftVersion;
+import net.ornithemc.keratin.api.settings.BuildNumbers;
+
 public interface MultipleBuildsMavenArtifacts extends MavenArtifacts {
 
 	boolean contains(String minecraftVersion);
@@ -14,4 +18,26 @@ public interface MultipleBuildsMavenArtifacts extends MavenArtifacts {
 
 	MavenArtifact get(String minecraftVersion, int build);
 
+	void prefetch(Map<String, Integer> builds);
+
+	// the artifact versions that the given build numbers refer to, for artifacts
+	// that are split by obfuscation rather than by versioning
+	static Map<String, Integer> findBuilds(MinecraftVersion minecraftVersion, BuildNumbers builds) {
+		Map<String, Integer> versions = new LinkedHashMap<>();
+
+		if (minecraftVersion.hasSharedObfuscation()) {
+			if (builds.merged() > 0) {
+				versions.put(minecraftVersion.id(), builds.merged());
+			}
+		} else {
+			if (minecraftVersion.hasClient() && builds.client() > 0) {
+				versions.put(minecraftVersion.hasSharedVersioning() ? minecraftVersion.clientKey() : minecraftVersion.client().id(), builds.client());
+			}
+			if (minecraftVersion.hasServer() && builds.server() > 0) {
+				versions.put(minecraftVersion.hasSharedVersioning() ? minecraftVersion.serverKey() : minecraftVersion.server().id(), builds.server());
+			}
+		}
+
+		return versions;
+	}
 }
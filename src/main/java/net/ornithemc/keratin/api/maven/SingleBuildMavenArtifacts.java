@@ -1,9 +1,13 @@
 package net.ornithemc.keratin.api.maven;
 
+import java.util.Collection;
+
 public interface SingleBuildMavenArtifacts extends MavenArtifacts {
 
 	boolean contains(String minecraftVersion);
 
 	MavenArtifact get(String minecraftVersion);
 
+	void prefetch(Collection<String> minecraftVersions);
+
 }
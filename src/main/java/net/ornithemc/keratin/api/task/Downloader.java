@@ -3,14 +3,16 @@ package net.ornithemc.keratin.api.task;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.gradle.api.Project;
 
-import com.google.common.hash.HashCode;
-import com.google.common.hash.Hashing;
-import com.google.common.io.Files;
-
 import de.undercouch.gradle.tasks.download.DownloadAction;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -18,6 +20,8 @@ import net.ornithemc.keratin.api.maven.MavenArtifact;
 
 public interface Downloader extends TaskAware {
 
+	static int MAX_CONCURRENT_DOWNLOADS = 8;
+
 	default boolean download(String url, File output) throws Exception {
 		return download(url, output, false);
 	}
@@ -46,7 +50,16 @@ public interface Downloader extends TaskAware {
 		KeratinGradleExtension keratin = getExtension();
 		Project project = keratin.getProject();
 
-		if (overwrite || !output.exists() || isRefreshDependencies() || !validateChecksum(output, sha1)) {
+		// in offline mode, only the existing copy can be used
+		if (keratin.getOffline().get()) {
+			if (!output.exists()) {
+				throw new IOException("no cached copy of " + url + " is available in offline mode");
+			}
+
+			return null;
+		}
+
+		if (overwrite || !output.exists() || isRefreshDependencies() || !validateChecksum(keratin, output, sha1)) {
 			DownloadAction downloader = new DownloadAction(project, (org.gradle.api.Task) this);
 
 			downloader.src(new URI(url));
@@ -59,21 +72,95 @@ public interface Downloader extends TaskAware {
 		return null;
 	}
 
-	private static boolean validateChecksum(File file, String sha1) throws IOException {
+	// downloads the file if needed and blocks until it is done, then checks the
+	// checksum of the downloaded file against the expected one
+	default boolean downloadAndVerify(String url, String sha1, File output, boolean overwrite) throws Exception {
+		CompletableFuture<Void> download = downloadFuture(url, sha1, output, overwrite);
+
+		if (download == null) {
+			return false;
+		}
+
+		download.join();
+
+		if (!validateChecksum(getExtension(), output, sha1)) {
+			throw new IOException("checksum mismatch for " + output.getName() + " downloaded from " + url);
+		}
+
+		return true;
+	}
+
+	private static boolean validateChecksum(KeratinGradleExtension keratin, File file, String sha1) throws IOException {
 		if (sha1 == null || sha1.isEmpty()) {
 			return true;
 		}
 
-		@SuppressWarnings("deprecation")
-		HashCode hash = Files.asByteSource(file).hash(Hashing.sha1());
+		return keratin.getFiles().getGlobalCache().getChecksumCache().matches(file, sha1);
+	}
+
+	// collects downloads and runs them with bounded concurrency,
+	// rather than one after the other or all at once
+	public static class DownloadBatch implements AutoCloseable {
+
+		private final ExecutorService executor;
+		private final List<CompletableFuture<Boolean>> downloads;
+
+		public DownloadBatch(int maxConcurrentDownloads) {
+			this.executor = Executors.newFixedThreadPool(maxConcurrentDownloads);
+			this.downloads = new ArrayList<>();
+		}
+
+		public void submit(Callable<Boolean> download) {
+			downloads.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return download.call();
+				} catch (CompletionException e) {
+					// already wrapped by the download itself
+					throw e;
+				} catch (Exception e) {
+					throw new CompletionException(e);
+				}
+			}, executor));
+		}
+
+		// waits for all downloads to finish, and returns whether any file changed
+		public boolean join() throws Exception {
+			boolean changed = false;
+			Exception error = null;
+
+			for (CompletableFuture<Boolean> download : downloads) {
+				try {
+					changed |= download.join();
+				} catch (CompletionException e) {
+					Throwable t = e;
+
+					while (t instanceof CompletionException && t.getCause() != null) {
+						t = t.getCause();
+					}
 
-		StringBuilder sb = new StringBuilder();
+					Exception cause = (t instanceof Exception c) ? c : e;
 
-		for (byte b : hash.asBytes()) {
-			sb.append(Integer.toString((b & 0xFF) + 0x100, 16).substring(1));
+					if (error == null) {
+						error = cause;
+					} else {
+						error.addSuppressed(cause);
+					}
+				}
+			}
+
+			downloads.clear();
+
+			if (error != null) {
+				throw error;
+			}
+
+			return changed;
 		}
 
-		return sb.toString().equals(sha1);
+		@Override
+		public void close() {
+			executor.shutdownNow();
+		}
 	}
 
 	public static void download(Project project, String url, String sha1, File output) throws Exception {
@@ -81,7 +168,16 @@ public interface Downloader extends TaskAware {
 	}
 
 	public static void download(Project project, String url, String sha1, File output, boolean overwrite) throws Exception {
-		if (overwrite || !output.exists() || project.getGradle().getStartParameter().isRefreshDependencies() || !validateChecksum(output, sha1)) {
+		// in offline mode, only the existing copy can be used
+		if (KeratinGradleExtension.get(project).getOffline().get()) {
+			if (!output.exists()) {
+				throw new IOException("no cached copy of " + url + " is available in offline mode");
+			}
+
+			return;
+		}
+
+		if (overwrite || !output.exists() || project.getGradle().getStartParameter().isRefreshDependencies() || !validateChecksum(KeratinGradleExtension.get(project), output, sha1)) {
 			DownloadAction downloader = new DownloadAction(project);
 
 			downloader.src(new URI(url));
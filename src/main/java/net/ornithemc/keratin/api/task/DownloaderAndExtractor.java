@@ -29,4 +29,12 @@ public interface DownloaderAndExtractor extends Downloader, Extractor {
 			return true;
 		}
 	}
+
+	default boolean downloadAndVerifyAndExtract(String url, String sha1, String pathInZip, File dstZip, File dst, boolean overwrite) throws Exception {
+		if (downloadAndVerify(url, sha1, dstZip, overwrite)) {
+			return extract(pathInZip, dstZip, dst, true);
+		} else {
+			return extract(pathInZip, dstZip, dst, overwrite);
+		}
+	}
 }
@@ -2,10 +2,8 @@ package net.ornithemc.keratin.api.task;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
+
+import net.ornithemc.keratin.util.ZipUtils;
 
 public interface Extractor {
 
@@ -19,14 +17,8 @@ public interface Extractor {
 				dst.delete();
 			}
 
-			try (FileSystem fs = FileSystems.newFileSystem(zip.toPath())) {
-				Path src = fs.getPath(pathInZip);
-
-				if (Files.exists(src)) {
-					Files.copy(src, dst.toPath());
-				} else {
-					throw new IOException("file " + pathInZip + " could not be found!");
-				}
+			try {
+				ZipUtils.extractEntry(zip, pathInZip, dst);
 			} catch (IOException e) {
 				throw new RuntimeException("error while extracting file " + pathInZip + " from zip " + zip.getName());
 			}
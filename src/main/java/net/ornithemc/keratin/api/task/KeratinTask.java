@@ -3,6 +3,10 @@ package net.ornithemc.keratin.api.task;
 import javax.inject.Inject;
 
 import org.gradle.api.DefaultTask;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
 
@@ -11,8 +15,20 @@ public abstract class KeratinTask extends DefaultTask implements TaskAware {
 	@Inject
 	public KeratinTask() {
 		setGroup("keratin");
+
+		getRefreshDependencies().convention(getProject().getGradle().getStartParameter().isRefreshDependencies());
+		getRefreshDependencies().finalizeValueOnRead();
 	}
 
+	@Inject
+	public abstract FileSystemOperations getFileSystemOperations();
+
+	@Inject
+	public abstract ProjectLayout getLayout();
+
+	@Internal
+	public abstract Property<Boolean> getRefreshDependencies();
+
 	@Override
 	public KeratinGradleExtension getExtension() {
 		return KeratinGradleExtension.get(getProject());
@@ -20,6 +36,6 @@ public abstract class KeratinTask extends DefaultTask implements TaskAware {
 
 	@Override
 	public boolean isRefreshDependencies() {
-		return getProject().getGradle().getStartParameter().isRefreshDependencies();
+		return getRefreshDependencies().get();
 	}
 }
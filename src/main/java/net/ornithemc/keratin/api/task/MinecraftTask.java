@@ -1,44 +1,294 @@
 package net.ornithemc.keratin.api.task;
 
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
 import javax.inject.Inject;
 
-import org.gradle.api.Action;
 import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.workers.WorkQueue;
 import org.gradle.workers.WorkerExecutor;
 
 import net.ornithemc.keratin.api.MinecraftVersion;
+import net.ornithemc.keratin.cache.ClassPathIndex;
+import net.ornithemc.keratin.cache.MappingsGraphSession;
 
 public abstract class MinecraftTask extends KeratinTask {
 
-	private Action<MinecraftVersion> configureMinecraftVersionAction;
+	// jars take up several times their compressed size once
+	// their classes are read into memory
+	private static final long MEMORY_PER_INPUT_BYTE = 10;
+
+	@Inject
+	public MinecraftTask() {
+		getMaxParallelVersions().convention(getExtension().getMaxParallelVersions());
+	}
 
 	@Inject
 	public abstract WorkerExecutor getWorkerExecutor();
 
+	@Inject
+	public abstract ProviderFactory getProviders();
+
 	@Internal
 	public abstract ListProperty<MinecraftVersion> getMinecraftVersions();
 
-	public void configureMinecraftVersion(Action<MinecraftVersion> configureMinecraftVersionAction) {
-		this.configureMinecraftVersionAction = configureMinecraftVersionAction;
-	}
+	@Internal
+	public abstract Property<Integer> getMaxParallelVersions();
+
+	@Internal
+	public abstract Property<String> getWorkerMaxHeapSize();
+
+	@ServiceReference(ClassPathIndex.NAME)
+	public abstract Property<ClassPathIndex> getClassPathIndex();
+
+	@ServiceReference(MappingsGraphSession.NAME)
+	public abstract Property<MappingsGraphSession> getGraphSession();
 
 	@TaskAction
 	public void run() throws Exception {
-		WorkerExecutor workerExecutor = getWorkerExecutor();
-		WorkQueue workQueue = workerExecutor.noIsolation();
+		List<MinecraftVersion> minecraftVersions = getMinecraftVersions().get();
+
+		prefetch(minecraftVersions);
+
+		if (isInlineWorkThreadSafe()) {
+			runConcurrently(minecraftVersions);
+		} else {
+			schedule(minecraftVersions);
+		}
+	}
+
+	// submit the work for each version, but keep at most the configured number
+	// of versions in flight, and no more than the daemon heap can hold at once
+	private void schedule(List<MinecraftVersion> minecraftVersions) throws Exception {
+		int maxParallelVersions = Math.max(1, getMaxParallelVersions().get());
+		// forked workers each have a heap of their own
+		long memoryBudget = getWorkerMaxHeapSize().isPresent()
+			? Long.MAX_VALUE
+			: Runtime.getRuntime().maxMemory() / 4 * 3;
 
-		for (MinecraftVersion minecraftVersion : getMinecraftVersions().get()) {
-			if (configureMinecraftVersionAction != null) {
-				configureMinecraftVersionAction.execute(minecraftVersion);
+		Deque<ScheduledVersion> scheduled = new ArrayDeque<>();
+		long memoryScheduled = 0;
+
+		for (MinecraftVersion minecraftVersion : minecraftVersions) {
+			long memory = getWorkerMaxHeapSize().isPresent() ? 0 : estimateMemory(minecraftVersion);
+
+			// a version that needs more than the budget still runs, just on its own
+			while (!scheduled.isEmpty() && (scheduled.size() >= maxParallelVersions || memoryScheduled + memory > memoryBudget)) {
+				ScheduledVersion oldest = scheduled.poll();
+				oldest.workQueue().await();
+				memoryScheduled -= oldest.memory();
 			}
 
+			WorkQueue workQueue = createWorkQueue();
 			run(workQueue, minecraftVersion);
+
+			scheduled.add(new ScheduledVersion(workQueue, memory));
+			memoryScheduled += memory;
+		}
+	}
+
+	// for tasks that do their work on the task thread rather than submitting it,
+	// run the versions on a thread pool instead
+	private void runConcurrently(List<MinecraftVersion> minecraftVersions) throws Exception {
+		int threads = Math.max(1, Math.min(getMaxParallelVersions().get(), minecraftVersions.size()));
+		WorkQueue workQueue = createWorkQueue();
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			List<Future<Void>> futures = new ArrayList<>();
+
+			for (MinecraftVersion minecraftVersion : minecraftVersions) {
+				futures.add(executor.submit(() -> {
+					run(workQueue, minecraftVersion);
+					return null;
+				}));
+			}
+
+			Exception failure = null;
+
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Exception cause = (e.getCause() instanceof Exception ex) ? ex : e;
+
+					if (failure == null) {
+						failure = cause;
+					} else {
+						failure.addSuppressed(cause);
+					}
+				}
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
 		}
 	}
 
+	// tasks whose work for one version runs on the task thread, does not submit
+	// to the work queue, and does not write files shared with other versions
+	protected boolean isInlineWorkThreadSafe() {
+		return false;
+	}
+
+	// stages that read whole jars into memory can run in separate worker
+	// processes, if a heap size for those is configured
+	protected void forkWorkers() {
+		getWorkerMaxHeapSize().convention(getExtension().getWorkerMaxHeapSize());
+	}
+
+	protected WorkQueue createWorkQueue() {
+		WorkerExecutor workerExecutor = getWorkerExecutor();
+
+		if (getWorkerMaxHeapSize().isPresent()) {
+			String maxHeapSize = getWorkerMaxHeapSize().get();
+
+			return workerExecutor.processIsolation(spec -> {
+				spec.forkOptions(options -> options.setMaxHeapSize(maxHeapSize));
+			});
+		}
+
+		return workerExecutor.noIsolation();
+	}
+
+	// build services cannot be shared with workers in another process,
+	// those read the libraries themselves
+	protected Provider<ClassPathIndex> getClassPathIndexForWorkers() {
+		return getWorkerMaxHeapSize().isPresent()
+			? getProviders().provider(() -> null)
+			: getClassPathIndex();
+	}
+
+	// a rough estimate of the heap needed for the work of the given version -
+	// tasks that do not declare their inputs should override this to weigh
+	// the files they read, or they are not limited by the memory budget
+	protected long estimateMemory(MinecraftVersion minecraftVersion) {
+		return estimateMemory(collectFiles(List.of(minecraftVersion), this::collectInputs));
+	}
+
+	protected static long estimateMemory(List<File> inputs) {
+		List<File> files = new ArrayList<>(inputs);
+		files.removeIf(Objects::isNull);
+
+		return sizeOf(files) * MEMORY_PER_INPUT_BYTE;
+	}
+
+	// fetch remote metadata needed for all versions up front, rather than
+	// one request at a time as each version runs
+	protected void prefetch(List<MinecraftVersion> minecraftVersions) throws Exception {
+	}
+
 	protected abstract void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception;
 
+	// declare the files this task reads and writes for each version, so that
+	// gradle can skip the task when it is up to date - inputs are fingerprinted
+	// by their contents and file names only, since the cache locations differ
+	// per machine
+	protected void declareFiles() {
+		getInputs().property("minecraftVersions", getMinecraftVersions().map(minecraftVersions -> minecraftVersions.stream().map(MinecraftVersion::id).toList()));
+		getInputs().files(getMinecraftVersions().map(minecraftVersions -> collectFiles(minecraftVersions, this::collectInputs)))
+			.withPropertyName("minecraftInputs")
+			.withPathSensitivity(PathSensitivity.NAME_ONLY);
+		getOutputs().files(getMinecraftVersions().map(minecraftVersions -> collectFiles(minecraftVersions, this::collectOutputs)))
+			.withPropertyName("minecraftOutputs");
+		// outputs in the global cache are shared with other projects, and must
+		// not be overwritten by outputs restored from the build cache
+		getOutputs().cacheIf("all outputs are in the project build directory", task -> isBuildDirectoryOutput());
+	}
+
+	private boolean isBuildDirectoryOutput() {
+		Path buildDirectory = getLayout().getBuildDirectory().getAsFile().get().toPath().toAbsolutePath().normalize();
+
+		for (File output : collectFiles(getMinecraftVersions().get(), this::collectOutputs)) {
+			if (!output.toPath().toAbsolutePath().normalize().startsWith(buildDirectory)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	// versions that have no build of some data file have no file for it either,
+	// so collected files may be null - those are left out of the result
+	protected void collectInputs(MinecraftVersion minecraftVersion, List<File> inputs) {
+	}
+
+	protected void collectOutputs(MinecraftVersion minecraftVersion, List<File> outputs) {
+	}
+
+	static <V> List<File> collectFiles(List<V> minecraftVersions, BiConsumer<V, List<File>> collector) {
+		List<File> files = new ArrayList<>();
+
+		for (V minecraftVersion : minecraftVersions) {
+			collector.accept(minecraftVersion, files);
+		}
+
+		files.removeIf(Objects::isNull);
+
+		return files;
+	}
+
+	static long sizeOf(List<File> files) {
+		long size = 0;
+
+		for (File file : files) {
+			size += file.length();
+		}
+
+		return size;
+	}
+
+	// gradle runs the task if any version is out of date, so outputs of the
+	// other versions are only replaced if they are missing or older than their
+	// inputs, or if the cache was found to be invalid
+	protected boolean shouldOverwrite(MinecraftVersion minecraftVersion) {
+		if (getExtension().isCacheInvalid()) {
+			return true;
+		}
+
+		List<File> inputs = collectFiles(List.of(minecraftVersion), this::collectInputs);
+		List<File> outputs = collectFiles(List.of(minecraftVersion), this::collectOutputs);
+
+		return isOutOfDate(inputs, outputs);
+	}
+
+	static boolean isOutOfDate(List<File> inputs, List<File> outputs) {
+		long oldestOutput = Long.MAX_VALUE;
+
+		for (File output : outputs) {
+			if (!output.exists()) {
+				return true;
+			}
+
+			oldestOutput = Math.min(oldestOutput, output.lastModified());
+		}
+		for (File input : inputs) {
+			if (input.lastModified() > oldestOutput) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private record ScheduledVersion(WorkQueue workQueue, long memory) {
+	}
 }
@@ -3,10 +3,14 @@ package net.ornithemc.keratin.api.task.build;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Map;
 
+import javax.inject.Inject;
+
 import org.gradle.api.provider.Property;
-import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Optional;
 import org.gradle.workers.WorkAction;
 import org.gradle.workers.WorkParameters;
 import org.gradle.workers.WorkQueue;
@@ -29,9 +33,59 @@ import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
 
 public abstract class BuildMappingsTask extends MinecraftTask {
 
-	@Internal
+	@Inject
+	public BuildMappingsTask() {
+		declareFiles();
+	}
+
+	@Input
+	@Optional
 	public abstract Property<String> getClassNamePattern();
 
+	@Override
+	protected void collectInputs(MinecraftVersion minecraftVersion, List<File> inputs) {
+		KeratinFiles files = getExtension().getFiles();
+
+		MappingsCache mappings = files.getGlobalCache().getMappingsCache();
+		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
+
+		if (minecraftVersion.hasSharedVersioning()) {
+			inputs.add(mappings.getMergedIntermediaryMappingsFile(minecraftVersion));
+		} else {
+			if (minecraftVersion.hasClient()) {
+				inputs.add(mappings.getClientIntermediaryMappingsFile(minecraftVersion));
+			}
+			if (minecraftVersion.hasServer()) {
+				inputs.add(mappings.getServerIntermediaryMappingsFile(minecraftVersion));
+			}
+		}
+
+		inputs.add(buildFiles.getCompletedMappingsFile(minecraftVersion));
+	}
+
+	@Override
+	protected void collectOutputs(MinecraftVersion minecraftVersion, List<File> outputs) {
+		BuildFiles buildFiles = getExtension().getFiles().getMappingsDevelopmentFiles().getBuildFiles();
+
+		if (minecraftVersion.hasSharedVersioning()) {
+			collectOutputs(buildFiles, minecraftVersion.id(), outputs);
+		} else {
+			if (minecraftVersion.hasClient()) {
+				collectOutputs(buildFiles, minecraftVersion.client().id(), outputs);
+			}
+			if (minecraftVersion.hasServer()) {
+				collectOutputs(buildFiles, minecraftVersion.server().id(), outputs);
+			}
+		}
+	}
+
+	private static void collectOutputs(BuildFiles buildFiles, String minecraftVersion, List<File> outputs) {
+		outputs.add(buildFiles.getTinyV1MappingsFile(minecraftVersion));
+		outputs.add(buildFiles.getTinyV2MappingsFile(minecraftVersion));
+		outputs.add(buildFiles.getMergedTinyV1MappingsFile(minecraftVersion));
+		outputs.add(buildFiles.getMergedTinyV2MappingsFile(minecraftVersion));
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		KeratinGradleExtension keratin = getExtension();
@@ -21,6 +21,7 @@ import net.ornithemc.keratin.api.MinecraftVersion;
 import net.ornithemc.keratin.api.task.MinecraftTask;
 import net.ornithemc.keratin.api.task.mapping.graph.MappingsGraph;
 import net.ornithemc.keratin.api.task.mapping.graph.Validators;
+import net.ornithemc.keratin.cache.MappingsGraphSession;
 import net.ornithemc.keratin.files.KeratinFiles;
 import net.ornithemc.keratin.files.MappingsDevelopmentFiles;
 import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
@@ -30,7 +31,7 @@ public abstract class BuildProcessedMappingsTask extends MinecraftTask {
 
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
-		getProject().getLogger().lifecycle(":building processed mappings for Minecraft " + minecraftVersion.id());
+		getLogger().lifecycle(":building processed mappings for Minecraft " + minecraftVersion.id());
 
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
@@ -43,6 +44,7 @@ public abstract class BuildProcessedMappingsTask extends MinecraftTask {
 
 		workQueue.submit(BuildProcessedMappings.class, parameters -> {
 			parameters.getMinecraftVersion().set(minecraftVersion.id());
+			parameters.getGraphSession().set(getGraphSession());
 			parameters.getGraphDirectory().set(graphDir);
 			parameters.getOutput().set(output);
 		});
@@ -52,6 +54,8 @@ public abstract class BuildProcessedMappingsTask extends MinecraftTask {
 
 		Property<String> getMinecraftVersion();
 
+		Property<MappingsGraphSession> getGraphSession();
+
 		Property<File> getGraphDirectory();
 
 		Property<File> getOutput();
@@ -60,6 +64,11 @@ public abstract class BuildProcessedMappingsTask extends MinecraftTask {
 
 	public static abstract class BuildProcessedMappings implements WorkAction<BuildParameters>, MappingsGraph {
 
+		@Override
+		public Property<MappingsGraphSession> getGraphSession() {
+			return getParameters().getGraphSession();
+		}
+
 		@Override
 		public void execute() {
 			String minecraftVersion = getParameters().getMinecraftVersion().get();
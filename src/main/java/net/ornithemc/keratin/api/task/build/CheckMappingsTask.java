@@ -21,7 +21,7 @@ public abstract class CheckMappingsTask extends MinecraftTask {
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 
-		getProject().getLogger().lifecycle(":checking mappings for Minecraft " + minecraftVersion.id());
+		getLogger().lifecycle(":checking mappings for Minecraft " + minecraftVersion.id());
 
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
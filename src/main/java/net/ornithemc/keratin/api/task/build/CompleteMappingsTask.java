@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
 
+import javax.inject.Inject;
+
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.workers.WorkAction;
@@ -18,6 +20,7 @@ import net.ornithemc.keratin.api.MinecraftVersion;
 import net.ornithemc.keratin.api.task.MinecraftTask;
 import net.ornithemc.keratin.api.task.mapping.Mapper;
 import net.ornithemc.keratin.api.task.setup.MappingsFiller;
+import net.ornithemc.keratin.cache.ClassPathIndex;
 import net.ornithemc.keratin.files.GlobalCache;
 import net.ornithemc.keratin.files.GlobalCache.LibrariesCache;
 import net.ornithemc.keratin.files.GlobalCache.MappedJarsCache;
@@ -27,9 +30,34 @@ import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
 
 public abstract class CompleteMappingsTask extends MinecraftTask {
 
+	@Inject
+	public CompleteMappingsTask() {
+		declareFiles();
+		forkWorkers();
+	}
+
+	@Override
+	protected void collectInputs(MinecraftVersion minecraftVersion, List<File> inputs) {
+		KeratinFiles files = getExtension().getFiles();
+
+		GlobalCache globalCache = files.getGlobalCache();
+		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
+
+		inputs.add(globalCache.getMappedJarsCache().getMainIntermediaryJar(minecraftVersion));
+		inputs.add(globalCache.getMappingsCache().getMainIntermediaryMappingsFile(minecraftVersion));
+		inputs.add(buildFiles.getMappingsFile(minecraftVersion));
+	}
+
+	@Override
+	protected void collectOutputs(MinecraftVersion minecraftVersion, List<File> outputs) {
+		BuildFiles buildFiles = getExtension().getFiles().getMappingsDevelopmentFiles().getBuildFiles();
+
+		outputs.add(buildFiles.getCompletedMappingsFile(minecraftVersion));
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
-		getProject().getLogger().lifecycle(":completing mappings for Minecraft " + minecraftVersion.id());
+		getLogger().lifecycle(":completing mappings for Minecraft " + minecraftVersion.id());
 
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
@@ -43,6 +71,7 @@ public abstract class CompleteMappingsTask extends MinecraftTask {
 		workQueue.submit(CompleteMappings.class, parameters -> {
 			parameters.getJar().set(mappedJars.getMainIntermediaryJar(minecraftVersion));
 			parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+			parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 			parameters.getMappings().set(buildFiles.getMappingsFile(minecraftVersion));
 			parameters.getIntermediary().set(mappings.getMainIntermediaryMappingsFile(minecraftVersion));
 			parameters.getCompletedMappings().set(buildFiles.getCompletedMappingsFile(minecraftVersion));
@@ -61,6 +90,8 @@ public abstract class CompleteMappingsTask extends MinecraftTask {
 
 		Property<File> getCompletedMappings();
 
+		Property<ClassPathIndex> getClassPathIndex();
+
 	}
 
 	public static abstract class CompleteMappings implements WorkAction<BuildParameters>, MappingsFiller {
@@ -72,6 +103,7 @@ public abstract class CompleteMappingsTask extends MinecraftTask {
 			File mappings = getParameters().getMappings().get();
 			File intermediary = getParameters().getIntermediary().get();
 			File completedMappings = getParameters().getCompletedMappings().get();
+			ClassPathIndex classPath = getParameters().getClassPathIndex().getOrNull();
 
 			try {
 				MappingNameCompleter.completeNames(
@@ -90,6 +122,7 @@ public abstract class CompleteMappingsTask extends MinecraftTask {
 					completedMappings,
 					jar,
 					libraries,
+					classPath,
 					Mapper.NAMED
 				);
 			} catch (IOException e) {
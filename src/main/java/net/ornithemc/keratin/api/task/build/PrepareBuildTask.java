@@ -17,6 +17,7 @@ import net.ornithemc.keratin.api.settings.BuildNumbers;
 import net.ornithemc.keratin.api.task.MinecraftTask;
 import net.ornithemc.keratin.api.task.mapping.graph.MappingsGraph;
 import net.ornithemc.keratin.api.task.mapping.graph.Validators;
+import net.ornithemc.keratin.cache.MappingsGraphSession;
 import net.ornithemc.keratin.files.GlobalCache.NestsCache;
 import net.ornithemc.keratin.files.KeratinFiles;
 import net.ornithemc.keratin.files.MappingsDevelopmentFiles;
@@ -40,6 +41,7 @@ public abstract class PrepareBuildTask extends MinecraftTask implements Mappings
 
 		workQueue.submit(PrepareBuild.class, parameters -> {
 			parameters.getMinecraftVersion().set(minecraftVersion.id());
+			parameters.getGraphSession().set(getGraphSession());
 			parameters.getGraphDirectory().set(mappings.getMappingsDirectory());
 			parameters.getNests().set(nests.getMainIntermediaryNestsFile(minecraftVersion, nestsBuilds));
 			parameters.getProcessedOutput().set(buildFiles.getProcessedMappingsFile(minecraftVersion));
@@ -51,6 +53,8 @@ public abstract class PrepareBuildTask extends MinecraftTask implements Mappings
 
 		Property<String> getMinecraftVersion();
 
+		Property<MappingsGraphSession> getGraphSession();
+
 		Property<File> getGraphDirectory();
 
 		Property<File> getNests();
@@ -63,6 +67,11 @@ public abstract class PrepareBuildTask extends MinecraftTask implements Mappings
 
 	public static abstract class PrepareBuild implements WorkAction<BuildParameters>, MappingsGraph {
 
+		@Override
+		public Property<MappingsGraphSession> getGraphSession() {
+			return getParameters().getGraphSession();
+		}
+
 		@Override
 		public void execute() {
 			String minecraftVersion = getParameters().getMinecraftVersion().get();
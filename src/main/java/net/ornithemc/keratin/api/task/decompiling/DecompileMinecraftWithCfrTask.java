@@ -1,9 +1,9 @@
 package net.ornithemc.keratin.api.task.decompiling;
 
-import org.gradle.api.Project;
+import javax.inject.Inject;
+
 import org.gradle.workers.WorkQueue;
 
-import net.ornithemc.keratin.Configurations;
 import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.MinecraftVersion;
 import net.ornithemc.keratin.files.KeratinFiles;
@@ -12,24 +12,27 @@ import net.ornithemc.keratin.files.SharedFiles;
 
 public abstract class DecompileMinecraftWithCfrTask extends DecompileTask {
 
+	// cfr decompiles on a single thread, so shard the jar to use the other cores -
+	// but only if cfr runs inside a worker process, otherwise each shard would
+	// fork a cold jvm of its own
+	@Inject
+	public DecompileMinecraftWithCfrTask() {
+		getShards().convention(getWorkerMaxHeapSize().flatMap(maxHeapSize -> getThreads()).orElse(1));
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		KeratinGradleExtension keratin = getExtension();
-		Project project = keratin.getProject();
 		KeratinFiles files = keratin.getFiles();
 
 		SharedFiles sharedFiles = files.getSharedFiles();
 		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
 
-		submitJavaExecDecompileTask(
+		submitDecompileTask(
 			workQueue,
-			"org.benf.cfr.reader.Main",
-			project.getConfigurations().getByName(Configurations.DECOMPILE_CLASSPATH),
-			new String[] {
-				buildFiles.getProcessedNamedJar(minecraftVersion.id()).getAbsolutePath(),
-				"--outputdir",
-				sharedFiles.getDecompiledSourceDirectory(minecraftVersion).getAbsolutePath()
-			}
+			Engine.CFR,
+			buildFiles.getProcessedNamedJarForDecompile(minecraftVersion.id()),
+			sharedFiles.getDecompiledSourceDirectory(minecraftVersion)
 		);
 	}
 }
@@ -1,9 +1,7 @@
 package net.ornithemc.keratin.api.task.decompiling;
 
-import org.gradle.api.Project;
 import org.gradle.workers.WorkQueue;
 
-import net.ornithemc.keratin.Configurations;
 import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.MinecraftVersion;
 import net.ornithemc.keratin.files.KeratinFiles;
@@ -15,20 +13,16 @@ public abstract class DecompileMinecraftWithVineflowerTask extends DecompileTask
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		KeratinGradleExtension keratin = getExtension();
-		Project project = keratin.getProject();
 		KeratinFiles files = keratin.getFiles();
 
 		SharedFiles sharedFiles = files.getSharedFiles();
 		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
 
-		submitJavaExecDecompileTask(
+		submitDecompileTask(
 			workQueue,
-			"org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler",
-			project.getConfigurations().getByName(Configurations.DECOMPILE_CLASSPATH),
-			new String[] {
-				buildFiles.getProcessedNamedJar(minecraftVersion.id()).getAbsolutePath(),
-				sharedFiles.getDecompiledSourceDirectory(minecraftVersion).getAbsolutePath()
-			}
+			Engine.VINEFLOWER,
+			buildFiles.getProcessedNamedJarForDecompile(minecraftVersion.id()),
+			sharedFiles.getDecompiledSourceDirectory(minecraftVersion)
 		);
 	}
 }
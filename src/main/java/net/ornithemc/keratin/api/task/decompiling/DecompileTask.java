@@ -1,20 +1,99 @@
 package net.ornithemc.keratin.api.task.decompiling;
 
+import java.io.File;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
-import org.gradle.api.file.FileCollection;
+import javax.inject.Inject;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.ServiceReference;
+import org.gradle.api.tasks.Internal;
 import org.gradle.workers.WorkQueue;
 
-import net.ornithemc.keratin.api.task.JavaExecution;
+import net.ornithemc.keratin.Configurations;
+import net.ornithemc.keratin.api.MinecraftVersion;
 import net.ornithemc.keratin.api.task.MinecraftTask;
+import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
+
+public abstract class DecompileTask extends MinecraftTask implements Decompiler {
+
+	@Inject
+	public DecompileTask() {
+		getDecompileClasspath().from(getProject().getConfigurations().named(Configurations.DECOMPILE_CLASSPATH));
+		getIncremental().convention(true);
+		getThreads().convention(getDecompilerThreads().map(DecompilerThreads::getThreadsPerVersion));
+		getShards().convention(1);
+
+		forkWorkers();
+	}
+
+	@Internal
+	public abstract ConfigurableFileCollection getDecompileClasspath();
+
+	// only decompile the classes that changed since the last run
+	// and reuse the existing sources for the rest
+	@Internal
+	public abstract Property<Boolean> getIncremental();
+
+	// the number of threads each version is decompiled with, divided over
+	// its shards - by default the threads of the machine are divided over
+	// the versions that are decompiled at once
+	@Internal
+	public abstract Property<Integer> getThreads();
+
+	// the number of package shards each jar is split into, which
+	// are decompiled in parallel within the same worker
+	@Internal
+	public abstract Property<Integer> getShards();
+
+	@ServiceReference(DecompilerThreads.NAME)
+	public abstract Property<DecompilerThreads> getDecompilerThreads();
+
+	// both decompilers read the whole processed jar - when the decompiler is
+	// forked, its heap is not taken from the daemon, but it still takes up
+	// the memory of the machine the daemon runs on
+	@Override
+	protected long estimateMemory(MinecraftVersion minecraftVersion) {
+		BuildFiles buildFiles = getExtension().getFiles().getMappingsDevelopmentFiles().getBuildFiles();
+
+		return estimateMemory(List.of(buildFiles.getProcessedNamedJarForDecompile(minecraftVersion.id())));
+	}
+
+	// if a heap size is configured, the decompiler runs inside a worker process
+	// of its own, which gradle keeps around for later work with the same class
+	// path - otherwise each decompiler run is forked from the worker
+	@Override
+	protected WorkQueue createWorkQueue() {
+		if (getWorkerMaxHeapSize().isPresent()) {
+			Set<File> classpath = getDecompileClasspath().getFiles();
+			String maxHeapSize = getWorkerMaxHeapSize().get();
+
+			return getWorkerExecutor().processIsolation(spec -> {
+				spec.getClasspath().from(classpath);
+				spec.forkOptions(options -> options.setMaxHeapSize(maxHeapSize));
+			});
+		}
+
+		return super.createWorkQueue();
+	}
 
-public abstract class DecompileTask extends MinecraftTask implements JavaExecution {
+	protected void submitDecompileTask(WorkQueue workQueue, Engine engine, File input, File output, String... options) {
+		int threads = Math.max(1, getThreads().get());
+		int shards = Math.max(1, Math.min(getShards().get(), threads));
 
-	protected void submitJavaExecDecompileTask(WorkQueue workQueue, String mainClass, FileCollection classpath, String[] args) {
-		workQueue.submit(JavaExecutionAction.class, parameters -> {
-			parameters.getMainClass().set(mainClass);
-			parameters.getClasspath().set(classpath.getFiles());
-			parameters.getArgs().set(Arrays.asList(args));
+		workQueue.submit(DecompileJar.class, parameters -> {
+			parameters.getEngine().set(engine);
+			parameters.getOptions().set(Arrays.asList(options));
+			parameters.getInputJar().set(input);
+			parameters.getOutputDirectory().set(output);
+			parameters.getIncremental().set(getIncremental().get());
+			parameters.getThreads().set(threads);
+			parameters.getShards().set(shards);
+			parameters.getClasspath().set(getDecompileClasspath().getFiles());
+			parameters.getInProcess().set(getWorkerMaxHeapSize().isPresent());
 		});
 	}
 }
@@ -0,0 +1,271 @@
+package net.ornithemc.keratin.api.task.decompiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.process.ExecOperations;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import net.ornithemc.keratin.cache.DecompiledSourceIndex;
+import net.ornithemc.keratin.util.ZipUtils;
+
+public interface Decompiler {
+
+	enum Engine {
+
+		VINEFLOWER("org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler") {
+
+			@Override
+			List<String> getArgs(List<String> options, int threads, File input, File library, File output) {
+				List<String> args = new ArrayList<>(options);
+
+				args.add("-thr=" + threads);
+
+				if (library != null) {
+					args.add("-e=" + library.getAbsolutePath());
+				}
+
+				args.add(input.getAbsolutePath());
+				args.add(output.getAbsolutePath());
+
+				return args;
+			}
+		},
+		CFR("org.benf.cfr.reader.Main") {
+
+			// cfr is single threaded, so it relies on sharding to use more cores
+			@Override
+			List<String> getArgs(List<String> options, int threads, File input, File library, File output) {
+				List<String> args = new ArrayList<>();
+
+				args.add(input.getAbsolutePath());
+				args.add("--outputdir");
+				args.add(output.getAbsolutePath());
+
+				if (library != null) {
+					args.add("--extraclasspath");
+					args.add(library.getAbsolutePath());
+				}
+
+				args.addAll(options);
+
+				return args;
+			}
+		};
+
+		private final String mainClass;
+
+		private Engine(String mainClass) {
+			this.mainClass = mainClass;
+		}
+
+		public String getMainClass() {
+			return mainClass;
+		}
+
+		abstract List<String> getArgs(List<String> options, int threads, File input, File library, File output);
+
+	}
+
+	interface DecompileParameters extends WorkParameters {
+
+		Property<Engine> getEngine();
+
+		ListProperty<String> getOptions();
+
+		Property<File> getInputJar();
+
+		Property<File> getOutputDirectory();
+
+		Property<Boolean> getIncremental();
+
+		Property<Integer> getThreads();
+
+		Property<Integer> getShards();
+
+		SetProperty<File> getClasspath();
+
+		// only when the worker runs in a process of its own, since the command
+		// line entry points of decompilers may exit the jvm on errors
+		Property<Boolean> getInProcess();
+
+	}
+
+	abstract class DecompileJar implements WorkAction<DecompileParameters> {
+
+		// if most classes changed, decompiling the whole jar
+		// is no slower than decompiling part of it
+		private static final double MAX_CHANGED_RATIO = 0.5;
+
+		@Inject
+		public abstract ExecOperations getExecOperations();
+
+		@Override
+		public void execute() {
+			Engine engine = getParameters().getEngine().get();
+			List<String> options = getParameters().getOptions().get();
+			File input = getParameters().getInputJar().get();
+			File output = getParameters().getOutputDirectory().get();
+			boolean incremental = getParameters().getIncremental().get();
+			int threads = Math.max(1, getParameters().getThreads().get());
+			int shards = Math.max(1, getParameters().getShards().get());
+
+			File indexFile = new File(output.getParentFile(), output.getName() + ".index");
+			File tmp = new File(output.getParentFile(), output.getName() + ".tmp");
+
+			try {
+				DecompiledSourceIndex index = DecompiledSourceIndex.create(engine.name() + " " + String.join(" ", options), input);
+				DecompiledSourceIndex previous = (incremental && output.isDirectory()) ? DecompiledSourceIndex.read(indexFile) : null;
+
+				// the index is only valid once the sources match it again
+				Files.deleteIfExists(indexFile.toPath());
+
+				Set<String> changed = index.isCompatible(previous) ? index.findChanged(previous, output) : null;
+
+				if (changed == null || changed.size() > index.size() * MAX_CHANGED_RATIO) {
+					FileUtils.deleteDirectory(output);
+					Files.createDirectories(output.toPath());
+
+					if (shards == 1) {
+						decompile(engine, options, threads, input, null, output);
+					} else {
+						decompileShards(engine, options, threads, shards, input, index, index.getClassNames(), tmp, output);
+					}
+				} else {
+					for (String className : index.findRemoved(previous)) {
+						Files.deleteIfExists(DecompiledSourceIndex.getSourceFile(output, className).toPath());
+					}
+
+					if (!changed.isEmpty()) {
+						Logging.getLogger(Decompiler.class).lifecycle(":decompiling {} changed classes of {}", changed.size(), input.getName());
+
+						decompileShards(engine, options, threads, shards, input, index, changed, tmp, output);
+					}
+				}
+
+				index.write(indexFile);
+			} catch (IOException e) {
+				throw new UncheckedIOException("error while decompiling " + input.getName(), e);
+			}
+		}
+
+		// split the given classes into shards by package, and decompile those in
+		// parallel - the other classes of the jar are still needed to resolve the
+		// classes of each shard, but they should not be decompiled themselves
+		private void decompileShards(Engine engine, List<String> options, int threads, int shards, File input, DecompiledSourceIndex index, Set<String> classNames, File tmp, File output) throws IOException {
+			List<Set<String>> shardClasses = index.split(classNames, shards);
+
+			FileUtils.deleteDirectory(tmp);
+			Files.createDirectories(tmp.toPath());
+
+			try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(shardClasses.size(), threads))) {
+				List<Future<Void>> futures = new ArrayList<>();
+
+				for (int i = 0; i < shardClasses.size(); i++) {
+					Set<String> shard = shardClasses.get(i);
+
+					File shardJar = new File(tmp, "shard-%d.jar".formatted(i));
+					File libraryJar = new File(tmp, "library-%d.jar".formatted(i));
+					File sources = new File(tmp, "src-%d".formatted(i));
+
+					futures.add(executor.submit(() -> {
+						ZipUtils.copyEntries(input, shardJar, name -> shard.contains(index.getTopLevelClass(name)));
+						ZipUtils.copyEntries(input, libraryJar, name -> {
+							String className = index.getTopLevelClass(name);
+							return className != null && !shard.contains(className);
+						});
+
+						Files.createDirectories(sources.toPath());
+						decompile(engine, options, Math.max(1, threads / shardClasses.size()), shardJar, libraryJar, sources);
+
+						return null;
+					}));
+				}
+
+				for (Future<Void> future : futures) {
+					try {
+						future.get();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IOException("interrupted while decompiling", e);
+					} catch (ExecutionException e) {
+						if (e.getCause() instanceof IOException ioe) {
+							throw ioe;
+						}
+
+						throw new RuntimeException(e.getCause());
+					}
+				}
+			}
+
+			for (int i = 0; i < shardClasses.size(); i++) {
+				moveSources(new File(tmp, "src-%d".formatted(i)).toPath(), output.toPath());
+			}
+
+			FileUtils.deleteDirectory(tmp);
+		}
+
+		private void decompile(Engine engine, List<String> options, int threads, File input, File library, File output) {
+			String[] args = engine.getArgs(options, threads, input, library, output).toArray(String[]::new);
+
+			if (!getParameters().getInProcess().get()) {
+				Set<File> classpath = getParameters().getClasspath().get();
+
+				getExecOperations().javaexec(javaexec -> {
+					javaexec.getMainClass().set(engine.getMainClass());
+					javaexec.classpath(classpath);
+					javaexec.args((Object[]) args);
+				});
+
+				return;
+			}
+
+			try {
+				// the decompiler is on the class path of the worker process, which
+				// gradle keeps around for later work with the same class path
+				Class<?> mainClass = Class.forName(engine.getMainClass(), true, DecompileJar.class.getClassLoader());
+				mainClass.getMethod("main", String[].class).invoke(null, (Object) args);
+			} catch (InvocationTargetException e) {
+				throw new RuntimeException("error while decompiling " + input.getName(), e.getCause());
+			} catch (ReflectiveOperationException e) {
+				throw new RuntimeException("could not run decompiler " + engine.getMainClass(), e);
+			}
+		}
+
+		private static void moveSources(Path from, Path to) throws IOException {
+			List<Path> files;
+
+			try (Stream<Path> walk = Files.walk(from)) {
+				files = walk.filter(Files::isRegularFile).toList();
+			}
+
+			for (Path file : files) {
+				Path target = to.resolve(from.relativize(file));
+
+				Files.createDirectories(target.getParent());
+				Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+}
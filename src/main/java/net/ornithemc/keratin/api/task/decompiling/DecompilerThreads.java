@@ -0,0 +1,32 @@
+package net.ornithemc.keratin.api.task.decompiling;
+
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+// shared by all decompile tasks, and limits how many of them run at once - if
+// versions are pipelined, each version is decompiled by a task of its own, so
+// the tasks cannot divide the threads between the versions by themselves
+public abstract class DecompilerThreads implements BuildService<DecompilerThreads.Parameters> {
+
+	public static final String NAME = "keratinDecompilerThreads";
+
+	public interface Parameters extends BuildServiceParameters {
+
+		// the threads all decompilers in the build may use together
+		Property<Integer> getThreads();
+
+		Property<Integer> getMaxParallelVersions();
+
+		// the number of versions the build decompiles
+		Property<Integer> getVersions();
+
+	}
+
+	public int getThreadsPerVersion() {
+		Parameters parameters = getParameters();
+
+		int versionsInFlight = Math.max(1, Math.min(parameters.getMaxParallelVersions().get(), parameters.getVersions().get()));
+		return Math.max(1, parameters.getThreads().get() / versionsInFlight);
+	}
+}
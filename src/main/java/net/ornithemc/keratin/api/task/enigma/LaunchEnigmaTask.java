@@ -3,7 +3,9 @@ package net.ornithemc.keratin.api.task.enigma;
 import java.io.File;
 import java.util.Arrays;
 
-import org.gradle.api.Project;
+import javax.inject.Inject;
+
+import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Internal;
 import org.gradle.workers.WorkQueue;
@@ -21,6 +23,14 @@ import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
 
 public abstract class LaunchEnigmaTask extends MinecraftTask implements JavaExecution, EnigmaSession {
 
+	@Inject
+	public LaunchEnigmaTask() {
+		getEnigmaClasspath().from(getProject().getConfigurations().named(Configurations.ENIGMA_RUNTIME));
+	}
+
+	@Internal
+	public abstract ConfigurableFileCollection getEnigmaClasspath();
+
 	@Internal
 	public abstract Property<Boolean> getUnpicked();
 
@@ -41,7 +51,6 @@ public abstract class LaunchEnigmaTask extends MinecraftTask implements JavaExec
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		KeratinGradleExtension keratin = getExtension();
-		Project project = keratin.getProject();
 		KeratinFiles files = keratin.getFiles();
 
 		ProcessedJarsCache processedJars = files.getGlobalCache().getProcessedJarsCache();
@@ -58,7 +67,7 @@ public abstract class LaunchEnigmaTask extends MinecraftTask implements JavaExec
 			parameters.getMinecraftVersion().set(minecraftVersion.id());
 			parameters.getSessionLock().set(mappings.getEnigmaSessionLock(minecraftVersion));
 			parameters.getMainClass().set("org.quiltmc.enigma.gui.Main");
-			parameters.getClasspath().set(project.getConfigurations().getByName(Configurations.ENIGMA_RUNTIME).getFiles());
+			parameters.getClasspath().set(getEnigmaClasspath().getFiles());
 			parameters.getArgs().set(Arrays.asList(
 				"-jar"     , processedJar.getAbsolutePath(),
 				"-mappings", mappings.getWorkingDirectory(minecraftVersion).getAbsolutePath(),
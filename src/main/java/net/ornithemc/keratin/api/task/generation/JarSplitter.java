@@ -1,19 +1,25 @@
 package net.ornithemc.keratin.api.task.generation;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.nio.file.FileSystem;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import org.gradle.api.provider.Property;
 import org.gradle.workers.WorkAction;
@@ -38,8 +44,6 @@ import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.RecordComponentNode;
 
-import net.fabricmc.stitch.util.StitchUtil;
-
 import net.ornithemc.keratin.api.task.merging.Merger.MergerParameters;
 
 public interface JarSplitter {
@@ -89,51 +93,136 @@ public interface JarSplitter {
 		if (client.exists()) client.delete();
 		if (server.exists()) server.delete();
 
-		FileSystem clientFs = StitchUtil.getJarFileSystem(client, true).get();
-		FileSystem serverFs = StitchUtil.getJarFileSystem(server, true).get();
-		FileSystem mergedFs = StitchUtil.getJarFileSystem(merged, false).get();
+		try (
+			ZipFile mergedZip = new ZipFile(merged);
+			ZipOutputStream clientZip = new ZipOutputStream(new FileOutputStream(client));
+			ZipOutputStream serverZip = new ZipOutputStream(new FileOutputStream(server))
+		) {
+			List<? extends ZipEntry> entries = mergedZip.stream()
+				.filter(entry -> !entry.isDirectory() && entry.getName().endsWith(".class"))
+				.toList();
+
+			// the splitter keeps track of which classes with inner classes are
+			// split, those sets are shared so that each thread can use its own
+			Set<String> notClient = ConcurrentHashMap.newKeySet();
+			Set<String> notServer = ConcurrentHashMap.newKeySet();
+			ThreadLocal<ClassSplitter> splitters = ThreadLocal.withInitial(() -> new ClassSplitter(Opcodes.ASM9, notClient, notServer));
+
+			try (ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+				List<CompletableFuture<PendingClass>> classFutures = new ArrayList<>();
+
+				for (ZipEntry entry : entries) {
+					classFutures.add(CompletableFuture.supplyAsync(() -> {
+						try (InputStream is = mergedZip.getInputStream(entry)) {
+							return PendingClass.read(entry.getName(), is.readAllBytes());
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					}, executor));
+				}
 
-		ClassSplitter splitter = new ClassSplitter(Opcodes.ASM9);
+				List<PendingClass> classes = classFutures.stream().map(CompletableFuture::join).toList();
 
-		for (Path path : Files.walk(mergedFs.getPath("/")).toList()) {
-			if (!Files.isRegularFile(path) || !path.getFileName().toString().endsWith(".class")) {
-				continue;
-			}
+				// anonymous classes are split based on their outer class, so
+				// outer classes must be split before the classes they enclose
+				Map<String, PendingClass> classesByName = new HashMap<>();
+				for (PendingClass c : classes) {
+					classesByName.put(c.name(), c);
+				}
+				Map<Integer, List<Integer>> waves = new TreeMap<>();
+				Map<String, Integer> depths = new HashMap<>();
+				for (int i = 0; i < classes.size(); i++) {
+					waves.computeIfAbsent(depth(classes.get(i), classesByName, depths), key -> new ArrayList<>()).add(i);
+				}
 
-			byte[] bytes = Files.readAllBytes(path);
-			ClassReader reader = new ClassReader(bytes);
+				SplitClass[] splitClasses = new SplitClass[classes.size()];
 
-			// for the purposes of generating class/field/method
-			// sigs and excs, the code is not needed
-			reader.accept(splitter, ClassReader.SKIP_CODE);
+				for (List<Integer> wave : waves.values()) {
+					List<CompletableFuture<Void>> splitFutures = new ArrayList<>();
 
-			ClassNode c = splitter.getClient();
-			ClassNode s = splitter.getServer();
+					for (int i : wave) {
+						PendingClass c = classes.get(i);
 
-			if (c != null) {
-				writeClass(c, clientFs, path);
-			}
-			if (s != null) {
-				writeClass(s, serverFs, path);
+						splitFutures.add(CompletableFuture.runAsync(() -> {
+							ClassSplitter splitter = splitters.get();
+							ClassReader reader = new ClassReader(c.bytes());
+
+							// for the purposes of generating class/field/method
+							// sigs and excs, the code is not needed
+							reader.accept(splitter, ClassReader.SKIP_CODE);
+
+							splitClasses[i] = new SplitClass(writeClass(splitter.getClient()), writeClass(splitter.getServer()));
+						}, executor));
+					}
+
+					CompletableFuture.allOf(splitFutures.toArray(CompletableFuture[]::new)).join();
+				}
+
+				for (int i = 0; i < splitClasses.length; i++) {
+					String name = entries.get(i).getName();
+					SplitClass c = splitClasses[i];
+
+					if (c.client() != null) {
+						writeEntry(clientZip, name, c.client());
+					}
+					if (c.server() != null) {
+						writeEntry(serverZip, name, c.server());
+					}
+				}
 			}
 		}
-
-		clientFs.close();
-		serverFs.close();
-		mergedFs.close();
 	}
 
-	private static void writeClass(ClassNode cls, FileSystem fs, Path path) throws IOException {
-		Path file = fs.getPath(path.toString());
+	private static int depth(PendingClass c, Map<String, PendingClass> classes, Map<String, Integer> depths) {
+		Integer depth = depths.get(c.name());
+
+		if (depth == null) {
+			PendingClass outer = (c.outerClass() == null || c.outerClass().equals(c.name())) ? null : classes.get(c.outerClass());
 
-		if (file.getParent() != null) {
-			Files.createDirectories(file.getParent());
+			// guard against malformed cyclic outer class attributes
+			depths.put(c.name(), 0);
+			depth = (outer == null) ? 0 : depth(outer, classes, depths) + 1;
+			depths.put(c.name(), depth);
+		}
+
+		return depth;
+	}
+
+	private static byte[] writeClass(ClassNode cls) {
+		if (cls == null) {
+			return null;
 		}
 
 		ClassWriter writer = new ClassWriter(0);
 		cls.accept(writer);
 
-		Files.write(file, writer.toByteArray(), StandardOpenOption.CREATE_NEW);
+		return writer.toByteArray();
+	}
+
+	private static void writeEntry(ZipOutputStream zip, String name, byte[] bytes) throws IOException {
+		zip.putNextEntry(new ZipEntry(name));
+		zip.write(bytes);
+		zip.closeEntry();
+	}
+
+	record PendingClass(String name, byte[] bytes, String outerClass) {
+
+		static PendingClass read(String entryName, byte[] bytes) {
+			String[] outerClass = new String[1];
+
+			new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9) {
+
+				@Override
+				public void visitOuterClass(String owner, String name, String descriptor) {
+					outerClass[0] = owner;
+				}
+			}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+			return new PendingClass(entryName.substring(0, entryName.length() - ".class".length()), bytes, outerClass[0]);
+		}
+	}
+
+	record SplitClass(byte[] client, byte[] server) {
 	}
 
 	class ClassSplitter extends ClassVisitor {
@@ -154,12 +243,16 @@ public interface JarSplitter {
 		private String currentClass;
 
 		public ClassSplitter(int api) {
+			this(api, new HashSet<>(), new HashSet<>());
+		}
+
+		public ClassSplitter(int api, Set<String> notClient, Set<String> notServer) {
 			super(api);
 
 			this.api = api;
 
-			this.notClient = new HashSet<>();
-			this.notServer = new HashSet<>();
+			this.notClient = notClient;
+			this.notServer = notServer;
 		}
 
 		public ClassNode getClient() {
@@ -4,7 +4,10 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 
-import org.gradle.api.Project;
+import javax.inject.Inject;
+
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Internal;
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -15,15 +18,22 @@ import net.ornithemc.keratin.files.KeratinFiles;
 
 public abstract class MakeGeneratedJarsTask extends MinecraftTask {
 
+	@Inject
+	public MakeGeneratedJarsTask() {
+		getBuiltJar().convention(getLayout().getProjectDirectory().file("build/libs/" + getProject().getName() + ".jar"));
+	}
+
+	@Internal
+	public abstract RegularFileProperty getBuiltJar();
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
-		Project project = getProject();
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
 
 		BuildFiles buildFiles = files.getExceptionsAndSignaturesDevelopmentFiles().getBuildFiles();
 
-		File builtJar = project.file("build/libs/" + project.getName() + ".jar");
+		File builtJar = getBuiltJar().get().getAsFile();
 
 		if (minecraftVersion.canBeMerged()) {
 			copyGeneratedJar(
@@ -29,6 +29,7 @@ public abstract class MapGeneratedJarsTask extends MinecraftTask implements Mapp
 				parameters.getOutput().set(buildFiles.getGeneratedMergedJar(minecraftVersion));
 				parameters.getMappings().set(mappings.getMergedMappingsFile(minecraftVersion));
 				parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+				parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 				parameters.getSourceNamespace().set(Mapper.NAMED);
 				parameters.getTargetNamespace().set(Mapper.OFFICIAL);
 			});
@@ -40,6 +41,7 @@ public abstract class MapGeneratedJarsTask extends MinecraftTask implements Mapp
 					parameters.getOutput().set(buildFiles.getGeneratedClientJar(minecraftVersion));
 					parameters.getMappings().set(mappings.getClientMappingsFile(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getSourceNamespace().set(Mapper.NAMED);
 					parameters.getTargetNamespace().set(Mapper.OFFICIAL);
 				});
@@ -51,6 +53,7 @@ public abstract class MapGeneratedJarsTask extends MinecraftTask implements Mapp
 					parameters.getOutput().set(buildFiles.getGeneratedServerJar(minecraftVersion));
 					parameters.getMappings().set(mappings.getServerMappingsFile(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getSourceNamespace().set(Mapper.NAMED);
 					parameters.getTargetNamespace().set(Mapper.OFFICIAL);
 				});
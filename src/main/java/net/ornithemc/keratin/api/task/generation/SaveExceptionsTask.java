@@ -24,6 +24,11 @@ import net.ornithemc.keratin.files.KeratinFiles;
 
 public abstract class SaveExceptionsTask extends MinecraftTask implements Exceptor {
 
+	@Override
+	protected boolean isInlineWorkThreadSafe() {
+		return true;
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
 		KeratinGradleExtension keratin = getExtension();
@@ -103,7 +108,7 @@ public abstract class SaveExceptionsTask extends MinecraftTask implements Except
 
 			ExceptorIo.write(output.toPath(), generated);
 		} else if (output.exists()) {
-			getProject().delete(output);
+			getFileSystemOperations().delete(spec -> spec.delete(output));
 		}
 	}
 }
@@ -27,6 +27,11 @@ import net.ornithemc.keratin.files.KeratinFiles;
 
 public abstract class SaveSignaturesTask extends MinecraftTask implements Exceptor {
 
+	@Override
+	protected boolean isInlineWorkThreadSafe() {
+		return true;
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
 		KeratinGradleExtension keratin = getExtension();
@@ -119,7 +124,7 @@ public abstract class SaveSignaturesTask extends MinecraftTask implements Except
 				generated.accept(sw);
 			}
 		} else if (output.exists()) {
-			getProject().delete(output);
+			getFileSystemOperations().delete(spec -> spec.delete(output));
 		}
 	}
 }
@@ -1,5 +1,7 @@
 package net.ornithemc.keratin.api.task.generation;
 
+import java.util.List;
+
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -10,6 +12,15 @@ import net.ornithemc.keratin.files.KeratinFiles;
 
 public abstract class SplitGeneratedJarTask extends MinecraftTask implements JarSplitter {
 
+	@Override
+	protected long estimateMemory(MinecraftVersion minecraftVersion) {
+		BuildFiles buildFiles = getExtension().getFiles().getExceptionsAndSignaturesDevelopmentFiles().getBuildFiles();
+
+		return minecraftVersion.canBeMergedAsMapped()
+			? estimateMemory(List.of(buildFiles.getNamedGeneratedMergedJar(minecraftVersion)))
+			: 0;
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
 		KeratinGradleExtension keratin = getExtension();
@@ -1,5 +1,8 @@
 package net.ornithemc.keratin.api.task.mapping;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -15,6 +18,26 @@ public abstract class DownloadIntermediaryTask extends MinecraftTask implements
 
 	private static final String PATH_IN_JAR = "mappings/mappings.tiny";
 
+	@Override
+	protected void prefetch(List<MinecraftVersion> minecraftVersions) {
+		List<String> versions = new ArrayList<>();
+
+		for (MinecraftVersion minecraftVersion : minecraftVersions) {
+			if (minecraftVersion.hasSharedVersioning()) {
+				versions.add(minecraftVersion.id());
+			} else {
+				if (minecraftVersion.hasClient()) {
+					versions.add(minecraftVersion.client().id());
+				}
+				if (minecraftVersion.hasServer()) {
+					versions.add(minecraftVersion.server().id());
+				}
+			}
+		}
+
+		getExtension().getIntermediaryArtifacts().prefetch(versions);
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
 		KeratinGradleExtension keratin = getExtension();
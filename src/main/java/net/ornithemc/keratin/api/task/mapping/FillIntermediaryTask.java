@@ -14,6 +14,7 @@ import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.MinecraftVersion;
 import net.ornithemc.keratin.api.task.MinecraftTask;
 import net.ornithemc.keratin.api.task.setup.MappingsFiller;
+import net.ornithemc.keratin.cache.ClassPathIndex;
 import net.ornithemc.keratin.files.GlobalCache;
 import net.ornithemc.keratin.files.GlobalCache.GameJarsCache;
 import net.ornithemc.keratin.files.GlobalCache.LibrariesCache;
@@ -39,6 +40,7 @@ public abstract class FillIntermediaryTask extends MinecraftTask {
 				parameters.getOutputMappings().set(mappings.getFilledMergedIntermediaryMappingsFile(minecraftVersion));
 				parameters.getJar().set(gameJars.getMergedJar(minecraftVersion));
 				parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+				parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 			});
 		} else {
 			if (minecraftVersion.hasClient()) {
@@ -48,6 +50,7 @@ public abstract class FillIntermediaryTask extends MinecraftTask {
 					parameters.getOutputMappings().set(mappings.getFilledClientIntermediaryMappingsFile(minecraftVersion));
 					parameters.getJar().set(gameJars.getClientJar(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 				});
 			}
 			if (minecraftVersion.hasServer()) {
@@ -57,6 +60,7 @@ public abstract class FillIntermediaryTask extends MinecraftTask {
 					parameters.getOutputMappings().set(mappings.getFilledServerIntermediaryMappingsFile(minecraftVersion));
 					parameters.getJar().set(gameJars.getServerJar(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 				});
 			}
 		}
@@ -74,6 +78,8 @@ public abstract class FillIntermediaryTask extends MinecraftTask {
 
 		ListProperty<File> getLibraries();
 
+		Property<ClassPathIndex> getClassPathIndex();
+
 	}
 
 	public static abstract class FillIntermediary implements WorkAction<FillIntermediaryParameters>, MappingsFiller {
@@ -85,6 +91,7 @@ public abstract class FillIntermediaryTask extends MinecraftTask {
 			Collection<File> libraries = getParameters().getLibraries().get();
 			File input = getParameters().getInputMappings().get();
 			File output = getParameters().getOutputMappings().get();
+			ClassPathIndex classPath = getParameters().getClassPathIndex().getOrNull();
 
 			try {
 				if (KeratinGradleExtension.validateOutput(output, overwrite)) {
@@ -96,6 +103,7 @@ public abstract class FillIntermediaryTask extends MinecraftTask {
 					output,
 					jar,
 					libraries,
+					classPath,
 					Mapper.INTERMEDIARY
 				);
 			} catch (IOException e) {
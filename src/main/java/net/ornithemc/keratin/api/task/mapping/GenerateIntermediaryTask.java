@@ -1,5 +1,8 @@
 package net.ornithemc.keratin.api.task.mapping;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Internal;
@@ -45,8 +48,10 @@ public abstract class GenerateIntermediaryTask extends MinecraftTask {
 			options.targetNamespace(getTargetNamespace().get());
 		if (getTargetPackage().isPresent())
 			options.defaultPackage(getTargetPackage().get());
-		if (getObfuscationPatterns().isPresent())
-			options.obfuscationPatterns(getObfuscationPatterns().get());
+		List<String> obfuscationPatterns = new ArrayList<>(getObfuscationPatterns().getOrElse(List.of()));
+		obfuscationPatterns.addAll(getObfuscationPatterns(minecraftVersion));
+		if (!obfuscationPatterns.isEmpty())
+			options.obfuscationPatterns(obfuscationPatterns);
 		if (getNameLength().isPresent())
 			options.nameLength(getNameLength().get());
 		if (minecraftVersion.hasClient())
@@ -59,4 +64,20 @@ public abstract class GenerateIntermediaryTask extends MinecraftTask {
 
 		return options;
 	}
+
+	// very old versions are only partially obfuscated
+	// so we provide a very strict obfuscation pattern
+	private static List<String> getObfuscationPatterns(MinecraftVersion minecraftVersion) {
+		if (minecraftVersion.hasClient()) {
+			if (minecraftVersion.client().compareTo("0.0.0-rd.161348") < 0) { // early pre-classic
+				return List.of("^(?:(?!com/mojang/rubydung/RubyDung$).)*");
+			} else if (minecraftVersion.client().compareTo("0.0.0") < 0) { // late pre-classic
+				return List.of("^(?:(?!com/mojang/minecraft/RubyDung$).)*");
+			} else if (minecraftVersion.client().compareTo("0.31.0") < 0) {
+				return List.of("^(?:(?!com/mojang/minecraft/MinecraftApplet$).)*");
+			}
+		}
+
+		return List.of();
+	}
 }
@@ -22,7 +22,7 @@ public abstract class GenerateNewIntermediaryTask extends GenerateIntermediaryTa
 
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws IOException {
-		getProject().getLogger().lifecycle(":generating intermediary for Minecraft " + minecraftVersion.id());
+		getLogger().lifecycle(":generating intermediary for Minecraft " + minecraftVersion.id());
 
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
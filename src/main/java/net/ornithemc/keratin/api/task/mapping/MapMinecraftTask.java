@@ -1,5 +1,11 @@
 package net.ornithemc.keratin.api.task.mapping;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -14,6 +20,127 @@ import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
 
 public abstract class MapMinecraftTask extends MappingTask {
 
+	@Inject
+	public MapMinecraftTask() {
+		declareFiles();
+		forkWorkers();
+	}
+
+	@Override
+	protected void collectInputs(MinecraftVersion minecraftVersion, List<File> inputs) {
+		KeratinFiles files = getExtension().getFiles();
+
+		GlobalCache globalCache = files.getGlobalCache();
+		GameJarsCache gameJars = globalCache.getGameJarsCache();
+		MappedJarsCache mappedJars = globalCache.getMappedJarsCache();
+		MappingsCache mappings = globalCache.getMappingsCache();
+		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
+
+		if (OFFICIAL.equals(getSourceNamespace().get())) {
+			if (minecraftVersion.canBeMergedAsObfuscated()) {
+				inputs.add(gameJars.getMergedJar(minecraftVersion));
+				inputs.add(mappings.getMergedIntermediaryMappingsFile(minecraftVersion));
+			} else {
+				if (minecraftVersion.hasClient()) {
+					inputs.add(gameJars.getClientJar(minecraftVersion));
+					inputs.add(mappings.getClientIntermediaryMappingsFile(minecraftVersion));
+				}
+				if (minecraftVersion.hasServer()) {
+					inputs.add(gameJars.getServerJar(minecraftVersion));
+					inputs.add(mappings.getServerIntermediaryMappingsFile(minecraftVersion));
+				}
+			}
+		} else {
+			NamedJars namedJars = collectNamedJars(minecraftVersion, false);
+
+			for (File input : namedJars.inputs()) {
+				if (!inputs.contains(input)) {
+					inputs.add(input);
+				}
+			}
+
+			inputs.add(buildFiles.getMappingsFile(minecraftVersion));
+		}
+	}
+
+	@Override
+	protected void collectOutputs(MinecraftVersion minecraftVersion, List<File> outputs) {
+		KeratinFiles files = getExtension().getFiles();
+
+		MappedJarsCache mappedJars = files.getGlobalCache().getMappedJarsCache();
+		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
+
+		if (OFFICIAL.equals(getSourceNamespace().get())) {
+			if (minecraftVersion.canBeMergedAsObfuscated()) {
+				outputs.add(mappedJars.getIntermediaryMergedJar(minecraftVersion));
+			} else {
+				if (minecraftVersion.hasClient()) {
+					outputs.add(mappedJars.getIntermediaryClientJar(minecraftVersion));
+				}
+				if (minecraftVersion.hasServer()) {
+					outputs.add(mappedJars.getIntermediaryServerJar(minecraftVersion));
+				}
+			}
+		} else {
+			outputs.addAll(collectNamedJars(minecraftVersion, false).outputs());
+		}
+	}
+
+	// the jar the javadoc is generated from is mapped with the same mappings as
+	// the named jar, so both are written from the same mapping run - the javadoc
+	// only uses the merged jar if client and server share their version ids
+	private NamedJars collectNamedJars(MinecraftVersion minecraftVersion, boolean withLibraries) {
+		KeratinFiles files = getExtension().getFiles();
+
+		MappedJarsCache mappedJars = files.getGlobalCache().getMappedJarsCache();
+		LibrariesCache libraries = files.getGlobalCache().getLibrariesCache();
+		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
+
+		NamedJars namedJars = new NamedJars(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+		if (minecraftVersion.canBeMerged()) {
+			File mergedJar = mappedJars.getIntermediaryMergedJar(minecraftVersion);
+			List<File> mergedLibraries = withLibraries ? new ArrayList<>(libraries.getLibraries(minecraftVersion)) : List.of();
+
+			namedJars.add(mergedJar, buildFiles.getNamedJar(minecraftVersion.id()), mergedLibraries);
+
+			if (minecraftVersion.hasSharedVersioning()) {
+				namedJars.add(mergedJar, buildFiles.getJavadocNamedJar(minecraftVersion.id()), mergedLibraries);
+			}
+		}
+		if (!minecraftVersion.canBeMerged() || !minecraftVersion.hasSharedVersioning()) {
+			if (minecraftVersion.hasClient()) {
+				File clientJar = mappedJars.getIntermediaryClientJar(minecraftVersion);
+				List<File> clientLibraries = withLibraries ? new ArrayList<>(libraries.getLibraries(minecraftVersion.client().id())) : List.of();
+
+				if (!minecraftVersion.canBeMerged()) {
+					namedJars.add(clientJar, buildFiles.getNamedJar(minecraftVersion.client().id()), clientLibraries);
+				}
+				namedJars.add(clientJar, buildFiles.getJavadocNamedJar(minecraftVersion.client().id()), clientLibraries);
+			}
+			if (minecraftVersion.hasServer()) {
+				File serverJar = mappedJars.getIntermediaryServerJar(minecraftVersion);
+				List<File> serverLibraries = withLibraries ? new ArrayList<>(libraries.getLibraries(minecraftVersion.server().id())) : List.of();
+
+				if (!minecraftVersion.canBeMerged()) {
+					namedJars.add(serverJar, buildFiles.getNamedJar(minecraftVersion.server().id()), serverLibraries);
+				}
+				namedJars.add(serverJar, buildFiles.getJavadocNamedJar(minecraftVersion.server().id()), serverLibraries);
+			}
+		}
+
+		return namedJars;
+	}
+
+	private record NamedJars(List<File> inputs, List<File> outputs, List<List<File>> libraries) {
+
+		void add(File input, File output, List<File> inputLibraries) {
+			inputs.add(input);
+			outputs.add(output);
+			libraries.add(inputLibraries);
+		}
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		String srcNs = getSourceNamespace().get();
@@ -32,36 +159,55 @@ public abstract class MapMinecraftTask extends MappingTask {
 		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
 
 		boolean fromOfficial = OFFICIAL.equals(srcNs);
+		boolean overwrite = shouldOverwrite(minecraftVersion);
 
-		if (fromOfficial ? minecraftVersion.canBeMergedAsObfuscated() : minecraftVersion.canBeMerged()) {
+		if (fromOfficial && minecraftVersion.canBeMergedAsObfuscated()) {
 			workQueue.submit(MapJar.class, parameters -> {
-				parameters.getOverwrite().set(keratin.isCacheInvalid());
-				parameters.getInput().set(fromOfficial ? gameJars.getMergedJar(minecraftVersion) : mappedJars.getIntermediaryMergedJar(minecraftVersion));
-				parameters.getOutput().set(fromOfficial ? mappedJars.getIntermediaryMergedJar(minecraftVersion) : buildFiles.getNamedJar(minecraftVersion.id()));
-				parameters.getMappings().set(fromOfficial ? mappings.getMergedIntermediaryMappingsFile(minecraftVersion) : buildFiles.getMappingsFile(minecraftVersion));
+				parameters.getOverwrite().set(overwrite);
+				parameters.getInput().set(gameJars.getMergedJar(minecraftVersion));
+				parameters.getOutput().set(mappedJars.getIntermediaryMergedJar(minecraftVersion));
+				parameters.getMappings().set(mappings.getMergedIntermediaryMappingsFile(minecraftVersion));
 				parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+				parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
+				parameters.getSourceNamespace().set(srcNs);
+				parameters.getTargetNamespace().set(dstNs);
+			});
+		} else if (!fromOfficial) {
+			NamedJars namedJars = collectNamedJars(minecraftVersion, true);
+
+			// the named jars and the javadoc jars all use the same named mappings,
+			// so read those only once, and map each intermediary jar only once
+			workQueue.submit(MapJars.class, parameters -> {
+				parameters.getOverwrite().set(overwrite);
+				parameters.getInputs().set(namedJars.inputs());
+				parameters.getOutputs().set(namedJars.outputs());
+				parameters.getMappings().set(buildFiles.getMappingsFile(minecraftVersion));
+				parameters.getLibraries().set(namedJars.libraries());
+				parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 				parameters.getSourceNamespace().set(srcNs);
 				parameters.getTargetNamespace().set(dstNs);
 			});
 		} else {
 			if (minecraftVersion.hasClient()) {
 				workQueue.submit(MapJar.class, parameters -> {
-					parameters.getOverwrite().set(keratin.isCacheInvalid());
-					parameters.getInput().set(fromOfficial ? gameJars.getClientJar(minecraftVersion) : mappedJars.getIntermediaryClientJar(minecraftVersion));
-					parameters.getOutput().set(fromOfficial ? mappedJars.getIntermediaryClientJar(minecraftVersion) : buildFiles.getNamedJar(minecraftVersion.client().id()));
-					parameters.getMappings().set(fromOfficial ? mappings.getClientIntermediaryMappingsFile(minecraftVersion) : buildFiles.getMappingsFile(minecraftVersion));
+					parameters.getOverwrite().set(overwrite);
+					parameters.getInput().set(gameJars.getClientJar(minecraftVersion));
+					parameters.getOutput().set(mappedJars.getIntermediaryClientJar(minecraftVersion));
+					parameters.getMappings().set(mappings.getClientIntermediaryMappingsFile(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion.client().id()));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getSourceNamespace().set(srcNs);
 					parameters.getTargetNamespace().set(dstNs);
 				});
 			}
 			if (minecraftVersion.hasServer()) {
 				workQueue.submit(MapJar.class, parameters -> {
-					parameters.getOverwrite().set(keratin.isCacheInvalid());
-					parameters.getInput().set(fromOfficial ? gameJars.getServerJar(minecraftVersion) : mappedJars.getIntermediaryServerJar(minecraftVersion));
-					parameters.getOutput().set(fromOfficial ? mappedJars.getIntermediaryServerJar(minecraftVersion) : buildFiles.getNamedJar(minecraftVersion.server().id()));
-					parameters.getMappings().set(fromOfficial ? mappings.getServerIntermediaryMappingsFile(minecraftVersion) : buildFiles.getMappingsFile(minecraftVersion));
+					parameters.getOverwrite().set(overwrite);
+					parameters.getInput().set(gameJars.getServerJar(minecraftVersion));
+					parameters.getOutput().set(mappedJars.getIntermediaryServerJar(minecraftVersion));
+					parameters.getMappings().set(mappings.getServerIntermediaryMappingsFile(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion.server().id()));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getSourceNamespace().set(srcNs);
 					parameters.getTargetNamespace().set(dstNs);
 				});
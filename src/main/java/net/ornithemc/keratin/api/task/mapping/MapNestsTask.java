@@ -1,5 +1,9 @@
 package net.ornithemc.keratin.api.task.mapping;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -12,6 +16,49 @@ import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
 
 public abstract class MapNestsTask extends MappingTask {
 
+	// the mappings are read into memory alongside the nests
+	@Override
+	protected long estimateMemory(MinecraftVersion minecraftVersion) {
+		KeratinGradleExtension keratin = getExtension();
+		KeratinFiles files = keratin.getFiles();
+
+		MappingsCache mappings = files.getGlobalCache().getMappingsCache();
+		NestsCache nests = files.getGlobalCache().getNestsCache();
+		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
+
+		BuildNumbers builds = keratin.getNestsBuilds(minecraftVersion);
+
+		boolean fromOfficial = OFFICIAL.equals(getSourceNamespace().get());
+		List<File> inputs = new ArrayList<>();
+
+		if (fromOfficial ? minecraftVersion.canBeMergedAsObfuscated() : minecraftVersion.canBeMerged()) {
+			addInputs(inputs,
+				fromOfficial ? nests.getMergedNestsFile(minecraftVersion, builds) : nests.getIntermediaryMergedNestsFile(minecraftVersion, builds),
+				fromOfficial ? mappings.getFilledMergedIntermediaryMappingsFile(minecraftVersion) : buildFiles.getMappingsFile(minecraftVersion));
+		} else {
+			if (minecraftVersion.hasClient()) {
+				addInputs(inputs,
+					fromOfficial ? nests.getClientNestsFile(minecraftVersion, builds) : nests.getIntermediaryClientNestsFile(minecraftVersion, builds),
+					fromOfficial ? mappings.getFilledClientIntermediaryMappingsFile(minecraftVersion) : buildFiles.getMappingsFile(minecraftVersion));
+			}
+			if (minecraftVersion.hasServer()) {
+				addInputs(inputs,
+					fromOfficial ? nests.getServerNestsFile(minecraftVersion, builds) : nests.getIntermediaryServerNestsFile(minecraftVersion, builds),
+					fromOfficial ? mappings.getFilledServerIntermediaryMappingsFile(minecraftVersion) : buildFiles.getMappingsFile(minecraftVersion));
+			}
+		}
+
+		return estimateMemory(inputs);
+	}
+
+	// sides without a nests build are not mapped at all
+	private static void addInputs(List<File> inputs, File nests, File mappings) {
+		if (nests != null) {
+			inputs.add(nests);
+			inputs.add(mappings);
+		}
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		String srcNs = getSourceNamespace().get();
@@ -1,7 +1,12 @@
 package net.ornithemc.keratin.api.task.mapping;
 
+import java.io.File;
+import java.util.List;
+
+import javax.inject.Inject;
+
 import org.gradle.api.provider.Property;
-import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Input;
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -15,9 +20,42 @@ import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
 
 public abstract class MapProcessedMinecraftTask extends MappingTask implements Merger {
 
-	@Internal
+	@Inject
+	public MapProcessedMinecraftTask() {
+		declareFiles();
+		forkWorkers();
+	}
+
+	@Input
 	public abstract Property<Boolean> getForDecompile();
 
+	@Override
+	protected void collectInputs(MinecraftVersion minecraftVersion, List<File> inputs) {
+		KeratinGradleExtension keratin = getExtension();
+		KeratinFiles files = keratin.getFiles();
+
+		ProcessedJarsCache processedJars = files.getGlobalCache().getProcessedJarsCache();
+		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
+
+		inputs.add(getForDecompile().get()
+			? buildFiles.getUnpickedProcessedIntermediaryJarForDecompile(minecraftVersion)
+			: processedJars.getProcessedIntermediaryJar(minecraftVersion, keratin.getProcessorSettings(minecraftVersion)));
+		inputs.add(buildFiles.getProcessedMappingsFile(minecraftVersion));
+	}
+
+	@Override
+	protected void collectOutputs(MinecraftVersion minecraftVersion, List<File> outputs) {
+		BuildFiles buildFiles = getExtension().getFiles().getMappingsDevelopmentFiles().getBuildFiles();
+
+		outputs.add(getOutputJar(buildFiles, minecraftVersion));
+	}
+
+	private File getOutputJar(BuildFiles buildFiles, MinecraftVersion minecraftVersion) {
+		return getForDecompile().get()
+			? buildFiles.getProcessedNamedJarForDecompile(minecraftVersion.id())
+			: buildFiles.getProcessedNamedJar(minecraftVersion.id());
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		String srcNs = getSourceNamespace().get();
@@ -35,15 +73,17 @@ public abstract class MapProcessedMinecraftTask extends MappingTask implements M
 		ProcessorSettings processorSettings = getForDecompile().get()
 			? keratin.getProcessorSettingsForDecompile(minecraftVersion)
 			: keratin.getProcessorSettings(minecraftVersion);
+		boolean overwrite = shouldOverwrite(minecraftVersion);
 
 		workQueue.submit(MapJar.class, parameters -> {
-			parameters.getOverwrite().set(keratin.isCacheInvalid());
+			parameters.getOverwrite().set(overwrite);
 			parameters.getInput().set(getForDecompile().get()
-				? buildFiles.getUnpickedProcessedIntermediaryJar(minecraftVersion)
+				? buildFiles.getUnpickedProcessedIntermediaryJarForDecompile(minecraftVersion)
 				: processedJars.getProcessedIntermediaryJar(minecraftVersion, processorSettings));
-			parameters.getOutput().set(buildFiles.getProcessedNamedJar(minecraftVersion.id()));
+			parameters.getOutput().set(getOutputJar(buildFiles, minecraftVersion));
 			parameters.getMappings().set(buildFiles.getProcessedMappingsFile(minecraftVersion));
 			parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+			parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 			parameters.getSourceNamespace().set(srcNs);
 			parameters.getTargetNamespace().set(dstNs);
 		});
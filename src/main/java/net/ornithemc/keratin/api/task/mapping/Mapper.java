@@ -3,20 +3,29 @@ package net.ornithemc.keratin.api.task.mapping;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.workers.WorkAction;
 import org.gradle.workers.WorkParameters;
 
+import net.fabricmc.tinyremapper.IMappingProvider;
+import net.fabricmc.tinyremapper.IMappingProvider.MappingAcceptor;
+import net.fabricmc.tinyremapper.IMappingProvider.Member;
 import net.fabricmc.tinyremapper.OutputConsumerPath;
 import net.fabricmc.tinyremapper.TinyRemapper;
 import net.fabricmc.tinyremapper.TinyUtils;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.task.TaskAware;
+import net.ornithemc.keratin.cache.ClassPathIndex;
 import net.ornithemc.mappingutils.MappingUtils;
 import net.ornithemc.mappingutils.io.Format;
 
@@ -46,6 +55,29 @@ public interface Mapper extends TaskAware {
 
 		Property<String> getTargetNamespace();
 
+		Property<ClassPathIndex> getClassPathIndex();
+
+	}
+
+	interface MultiMapperParameters extends WorkParameters {
+
+		Property<Boolean> getOverwrite();
+
+		ListProperty<File> getInputs();
+
+		ListProperty<File> getOutputs();
+
+		Property<File> getMappings();
+
+		// the libraries of each input, client and server do not share all of theirs
+		ListProperty<List<File>> getLibraries();
+
+		Property<String> getSourceNamespace();
+
+		Property<String> getTargetNamespace();
+
+		Property<ClassPathIndex> getClassPathIndex();
+
 	}
 
 	abstract class MapperAction implements WorkAction<MapperParameters> {
@@ -86,7 +118,44 @@ public interface Mapper extends TaskAware {
 			String srcNs = getParameters().getSourceNamespace().get();
 			String dstNs = getParameters().getTargetNamespace().get();
 
-			Mapper._mapJar(input, output, mappings, libraries, srcNs, dstNs);
+			ClassPathIndex classPath = getParameters().getClassPathIndex().getOrNull();
+
+			Mapper._mapJar(input, output, mappings, libraries, classPath, srcNs, dstNs);
+		}
+	}
+
+	abstract class MapJars implements WorkAction<MultiMapperParameters> {
+
+		@Override
+		public void execute() {
+			boolean overwrite = getParameters().getOverwrite().get();
+			List<File> inputs = getParameters().getInputs().get();
+			List<File> outputs = getParameters().getOutputs().get();
+			File mappings = getParameters().getMappings().get();
+			List<List<File>> libraries = getParameters().getLibraries().get();
+			String srcNs = getParameters().getSourceNamespace().get();
+			String dstNs = getParameters().getTargetNamespace().get();
+			ClassPathIndex classPath = getParameters().getClassPathIndex().getOrNull();
+
+			List<File> pendingInputs = new ArrayList<>();
+			List<File> pendingOutputs = new ArrayList<>();
+			List<List<File>> pendingLibraries = new ArrayList<>();
+
+			for (int i = 0; i < inputs.size(); i++) {
+				if (!KeratinGradleExtension.validateOutput(outputs.get(i), overwrite)) {
+					pendingInputs.add(inputs.get(i));
+					pendingOutputs.add(outputs.get(i));
+					pendingLibraries.add(libraries.get(i));
+				}
+			}
+
+			if (!pendingInputs.isEmpty()) {
+				try {
+					Mapper._mapJars(pendingInputs, pendingOutputs, mappings, pendingLibraries, classPath, srcNs, dstNs);
+				} catch (IOException e) {
+					throw new UncheckedIOException("error while running mapper", e);
+				}
+			}
 		}
 	}
 
@@ -119,12 +188,112 @@ public interface Mapper extends TaskAware {
 	}
 
 	static void _mapJar(File input, File output, File mappings, Collection<File> libraries, String srcNs, String dstNs) throws IOException {
+		_mapJar(input, output, mappings, libraries, null, srcNs, dstNs);
+	}
+
+	static void _mapJar(File input, File output, File mappings, Collection<File> libraries, ClassPathIndex classPath, String srcNs, String dstNs) throws IOException {
 		if (output.exists()) {
 			output.delete();
 		}
 
+		_mapJar(input, output, TinyUtils.createTinyMappingProvider(mappings.toPath(), srcNs, dstNs), libraries, classPath, dstNs);
+	}
+
+	// maps several jars with the same mappings, parsing those mappings only once
+	// jars are still remapped one at a time, as tiny remapper cannot tell apart
+	// classes with the same name from different inputs (e.g. client and server)
+	// a jar that is given more than once is mapped once, and then copied
+	static void _mapJars(List<File> inputs, List<File> outputs, File mappings, List<? extends Collection<File>> libraries, ClassPathIndex classPath, String srcNs, String dstNs) throws IOException {
+		if (inputs.size() != outputs.size() || inputs.size() != libraries.size()) {
+			throw new IllegalArgumentException("number of inputs (" + inputs.size() + ") does not match number of outputs (" + outputs.size() + ") and libraries (" + libraries.size() + ")");
+		}
+
+		IMappingProvider mappingProvider = _loadMappings(mappings, srcNs, dstNs);
+		Map<File, File> mappedOutputs = new HashMap<>();
+
+		for (int i = 0; i < inputs.size(); i++) {
+			File input = inputs.get(i);
+			File output = outputs.get(i);
+
+			if (output.exists()) {
+				output.delete();
+			}
+
+			File mappedOutput = mappedOutputs.get(input);
+
+			if (mappedOutput != null) {
+				Files.copy(mappedOutput.toPath(), output.toPath());
+				continue;
+			}
+
+			_mapJar(input, output, mappingProvider, libraries.get(i), classPath, dstNs);
+			mappedOutputs.put(input, output);
+		}
+	}
+
+	// read the mappings into memory once, so that they can be given
+	// to multiple remapper instances without parsing them again
+	static IMappingProvider _loadMappings(File mappings, String srcNs, String dstNs) {
+		List<Consumer<MappingAcceptor>> entries = new ArrayList<>();
+
+		TinyUtils.createTinyMappingProvider(mappings.toPath(), srcNs, dstNs).load(new MappingAcceptor() {
+
+			@Override
+			public void acceptClass(String srcName, String dstName) {
+				entries.add(acceptor -> acceptor.acceptClass(srcName, dstName));
+			}
+
+			@Override
+			public void acceptMethod(Member method, String dstName) {
+				entries.add(acceptor -> acceptor.acceptMethod(method, dstName));
+			}
+
+			@Override
+			public void acceptMethodArg(Member method, int lvIndex, String dstName) {
+				entries.add(acceptor -> acceptor.acceptMethodArg(method, lvIndex, dstName));
+			}
+
+			@Override
+			public void acceptMethodVar(Member method, int lvIndex, int startOpIdx, int asmIndex, String dstName) {
+				entries.add(acceptor -> acceptor.acceptMethodVar(method, lvIndex, startOpIdx, asmIndex, dstName));
+			}
+
+			@Override
+			public void acceptField(Member field, String dstName) {
+				entries.add(acceptor -> acceptor.acceptField(field, dstName));
+			}
+		});
+
+		return acceptor -> {
+			for (Consumer<MappingAcceptor> entry : entries) {
+				entry.accept(acceptor);
+			}
+		};
+	}
+
+	// tiny remapper only reads its class path from files - there is no way to hand
+	// it class bytes, and jars are opened through the default file system - so the
+	// library classes it needs are written from the index into a jar of their own,
+	// and it parses only those rather than every class of the libraries
+	private static void _mapJar(File input, File output, IMappingProvider mappings, Collection<File> libraries, ClassPathIndex classPath, String dstNs) throws IOException {
+		if (classPath == null) {
+			_mapJar(input, output, mappings, libraries, dstNs);
+			return;
+		}
+
+		File classPathJar = new File(output.getParentFile(), ".tmp.classpath." + output.getName());
+
+		try {
+			classPath.writeRequiredClasses(input, libraries, classPathJar);
+			_mapJar(input, output, mappings, List.of(classPathJar), dstNs);
+		} finally {
+			Files.deleteIfExists(classPathJar.toPath());
+		}
+	}
+
+	private static void _mapJar(File input, File output, IMappingProvider mappings, Collection<File> libraries, String dstNs) throws IOException {
 		TinyRemapper.Builder remapperBuilder = TinyRemapper.newRemapper()
-			.withMappings(TinyUtils.createTinyMappingProvider(mappings.toPath(), srcNs, dstNs))
+			.withMappings(mappings)
 			.renameInvalidLocals(true)
 			.rebuildSourceFilenames(true)
 			.fixPackageAccess(NAMED.equals(dstNs));
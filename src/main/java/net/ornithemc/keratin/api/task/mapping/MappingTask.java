@@ -1,16 +1,16 @@
 package net.ornithemc.keratin.api.task.mapping;
 
 import org.gradle.api.provider.Property;
-import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Input;
 
 import net.ornithemc.keratin.api.task.MinecraftTask;
 
 abstract class MappingTask extends MinecraftTask implements Mapper {
 
-	@Internal
+	@Input
 	public abstract Property<String> getSourceNamespace();
 
-	@Internal
+	@Input
 	public abstract Property<String> getTargetNamespace();
 
 }
@@ -60,7 +60,7 @@ public abstract class UpdateIntermediaryTask extends GenerateIntermediaryTask {
 			fromMinecraftVersions.add(MinecraftVersion.parse(keratin, fromMinecraftVersion));
 		}
 
-		getProject().getLogger().lifecycle(":updating intermediary from Minecraft " + String.join("/", fromMinecraftVersionStrings) + " to " + minecraftVersion.id());
+		getLogger().lifecycle(":updating intermediary from Minecraft " + String.join("/", fromMinecraftVersionStrings) + " to " + minecraftVersion.id());
 
 		if (minecraftVersion.hasSharedObfuscation()) {
 			for (MinecraftVersion fromMinecraftVersion : fromMinecraftVersions) {
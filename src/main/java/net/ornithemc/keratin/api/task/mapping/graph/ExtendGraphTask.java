@@ -50,7 +50,7 @@ public abstract class ExtendGraphTask extends MinecraftTask implements MappingsG
 			fromMinecraftVersions.add(MinecraftVersion.parse(keratin, fromMinecraftVersion));
 		}
 
-		getProject().getLogger().lifecycle("extending the graph from Minecraft " + String.join("/", fromMinecraftVersionStrings) + " to " + minecraftVersion.id());
+		getLogger().lifecycle("extending the graph from Minecraft " + String.join("/", fromMinecraftVersionStrings) + " to " + minecraftVersion.id());
 
 		File graphDir = mappings.getMappingsDirectory();
 		String classNamePattern = getClassNamePattern().getOrElse("");
@@ -2,11 +2,17 @@ package net.ornithemc.keratin.api.task.mapping.graph;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
 
+import org.gradle.api.provider.Property;
+
 import net.ornithemc.keratin.api.MinecraftVersion;
+import net.ornithemc.keratin.cache.MappingsGraphSession;
 import net.ornithemc.mappingutils.MappingUtils;
 import net.ornithemc.mappingutils.PropagationDirection;
 import net.ornithemc.mappingutils.PropagationOptions;
@@ -30,6 +36,8 @@ public interface MappingsGraph {
 		MappingUtils.diffMappings(GRAPH_FORMAT, mappingsA.toPath(), mappingsB.toPath(), diffs.toPath());
 	}
 
+	Property<MappingsGraphSession> getGraphSession();
+
 	default void startGraph(File graphDir, MinecraftVersion rootMinecraftVersion, File rootMinecraftJar, String classNamePattern) throws IOException {
 		File rootMappings = new File(graphDir, "%s.tiny".formatted(rootMinecraftVersion.id()));
 
@@ -38,35 +46,67 @@ public interface MappingsGraph {
 		}
 		graphDir.mkdirs();
 
-		generateDummyMappings(rootMinecraftJar, classNamePattern, rootMappings);
+		MappingsGraphSession session = getGraphSession().get();
+
+		FileUtils.copyFile(session.getDummyMappings(rootMinecraftJar, classNamePattern), rootMappings);
+
+		session.invalidate(graphDir);
 	}
 
-	default void extendGraph(File graphDir, MinecraftVersion minecraftVersion, List<MinecraftVersion> fromMinecraftVersions, File jar, List<File> fromJars, String classNamePattern) throws IOException {
-		VersionGraph graph = VersionGraph.of(GRAPH_FORMAT, graphDir.toPath());
+	default void startGraph(File graphDir, MinecraftVersion rootMinecraftVersion, File rootDummyMappings) throws IOException {
+		File rootMappings = new File(graphDir, "%s.tiny".formatted(rootMinecraftVersion.id()));
 
-		if (graph.hasVersion(minecraftVersion.id())) {
-			throw new RuntimeException("cannot extend graph to " + minecraftVersion.id() + "S: version already exists in graph!");
+		if (graphDir.exists()) {
+			FileUtils.forceDelete(graphDir);
 		}
+		graphDir.mkdirs();
+
+		FileUtils.copyFile(rootDummyMappings, rootMappings);
+
+		getGraphSession().get().invalidate(graphDir);
+	}
+
+	default void extendGraph(File graphDir, MinecraftVersion minecraftVersion, List<MinecraftVersion> fromMinecraftVersions, File jar, List<File> fromJars, String classNamePattern) throws IOException {
 		for (int i = 0; i < fromMinecraftVersions.size(); i++) {
-			MinecraftVersion fromMinecraftVersion = fromMinecraftVersions.get(i);
+			if (!fromJars.get(i).exists()) {
+				throw new RuntimeException("cannot extend graph from " + fromMinecraftVersions.get(i).id() + ": no processed intermediary mapped jar provided!");
+			}
+		}
+
+		MappingsGraphSession session = getGraphSession().get();
+
+		File dummyMappings = session.getDummyMappings(jar, classNamePattern);
+		List<File> fromDummyMappings = new ArrayList<>();
 
-			if (!graph.hasVersion(fromMinecraftVersion.id())) {
+		for (File fromJar : fromJars) {
+			fromDummyMappings.add(session.getDummyMappings(fromJar, classNamePattern));
+		}
+
+		extendGraph(graphDir, minecraftVersion, fromMinecraftVersions, dummyMappings, fromDummyMappings);
+	}
+
+	// versions that do not depend on each other can be added to the graph concurrently
+	default void extendGraph(File graphDir, MinecraftVersion minecraftVersion, List<MinecraftVersion> fromMinecraftVersions, File dummyMappings, List<File> fromDummyMappings) throws IOException {
+		MappingsGraphSession session = getGraphSession().get();
+
+		if (session.hasVersion(graphDir, minecraftVersion.id())) {
+			throw new RuntimeException("cannot extend graph to " + minecraftVersion.id() + "S: version already exists in graph!");
+		}
+		for (MinecraftVersion fromMinecraftVersion : fromMinecraftVersions) {
+			if (!session.hasVersion(graphDir, fromMinecraftVersion.id())) {
 				throw new RuntimeException("cannot extend graph from " + fromMinecraftVersion.id() + ": version does not exist in the graph!");
 			}
-			if (!fromJars.get(i).exists()) {
-				throw new RuntimeException("cannot extend graph from " + fromMinecraftVersion.id() + ": no processed intermediary mapped jar provided!");
-			}
 		}
 
-		File tmpDir = new File(graphDir, ".tmp");
-		File extendedMappings = new File(tmpDir, "mappings.tiny");
-		File tmpGraphDir = new File(graphDir, ".mappings");
+		// kept outside the graph directory so it is never mistaken for part of the graph
+		File tmpGraphDir = new File(graphDir.getParentFile(), ".tmp.extend.%s.%s".formatted(minecraftVersion.id(), graphDir.getName()));
+		Mappings dummy = session.readDummyMappings(dummyMappings);
+		Mappings extendedMappings = null;
 
 		for (int i = 0; i < fromMinecraftVersions.size(); i++) {
 			MinecraftVersion fromMinecraftVersion = fromMinecraftVersions.get(i);
-			File fromJar = fromJars.get(i);
+			File fromDummy = fromDummyMappings.get(i);
 
-			File tmpTiny = new File(tmpGraphDir, "%s.tiny".formatted(minecraftVersion.id()));
 			File tmpFromTiny = new File(tmpGraphDir, "%s.tiny".formatted(fromMinecraftVersion.id()));
 			File tmpDiff = new File(tmpGraphDir, "%s#%s.tinydiff".formatted(fromMinecraftVersion.id(), minecraftVersion.id()));
 
@@ -75,48 +115,42 @@ public interface MappingsGraph {
 			}
 			tmpGraphDir.mkdirs();
 
-			generateDummyMappings(jar, classNamePattern, tmpTiny);
-			generateDummyMappings(fromJar, classNamePattern, tmpFromTiny);
-			diffDummyMappings(tmpFromTiny, tmpTiny, tmpDiff);
-
-			FileUtils.forceDelete(tmpTiny);
+			// the diff is made in memory from the parsed dummy mappings - propagating
+			// the changes needs a graph on disk, so the temporary graph is seeded
+			// with a copy of the parent dummy mappings as its root and that diff
+			FileUtils.copyFile(fromDummy, tmpFromTiny);
+			GRAPH_FORMAT.writeDiff(tmpDiff.toPath(), MappingUtils.diffMappings(session.readDummyMappings(fromDummy), dummy));
 
-			if (extendedMappings.exists()) {
-				VersionGraph tmpGraph = VersionGraph.of(GRAPH_FORMAT, tmpGraphDir.toPath());
+			// the temporary graph is parsed once and kept up to date in memory
+			VersionGraph tmpGraph = VersionGraph.of(GRAPH_FORMAT, tmpGraphDir.toPath());
 
+			if (extendedMappings != null) {
 				Mappings current = MappingUtils.separateMappings(tmpGraph, minecraftVersion.id());
-				Mappings working = GRAPH_FORMAT.readMappings(extendedMappings.toPath());
-				MappingsDiff changes = MappingUtils.diffMappings(current, working);
+				MappingsDiff changes = MappingUtils.diffMappings(current, extendedMappings);
 
 				saveChanges(tmpGraph, changes, minecraftVersion);
 			}
 
-			VersionGraph tmpGraph = VersionGraph.of(GRAPH_FORMAT, tmpGraphDir.toPath());
-
 			Mappings current = MappingUtils.separateMappings(tmpGraph, fromMinecraftVersion.id());
-			Mappings working = MappingUtils.separateMappings(graph, fromMinecraftVersion.id());
+			Mappings working = session.getSeparatedMappings(graphDir, fromMinecraftVersion.id());
 			MappingsDiff changes = MappingUtils.diffMappings(current, working);
 
 			saveChanges(tmpGraph, changes, fromMinecraftVersion);
 
-			if (extendedMappings.exists()) {
-				FileUtils.forceDelete(extendedMappings);
-			}
-			tmpDir.mkdirs();
-
-			MappingUtils.separateMappings(GRAPH_FORMAT, tmpGraphDir.toPath(), extendedMappings.toPath(), minecraftVersion.id());
+			extendedMappings = MappingUtils.separateMappings(tmpGraph, minecraftVersion.id());
 		}
+
+		Map<File, MappingsDiff> diffs = new LinkedHashMap<>();
+
 		for (MinecraftVersion fromMinecraftVersion : fromMinecraftVersions) {
 			File diffFile = new File(graphDir, "%s#%s.tinydiff".formatted(fromMinecraftVersion.id(), minecraftVersion.id()));
+			Mappings fromMappings = session.getSeparatedMappings(graphDir, fromMinecraftVersion.id());
 
-			Mappings fromMappings = MappingUtils.separateMappings(graph, fromMinecraftVersion.id());
-			Mappings mappings = GRAPH_FORMAT.readMappings(extendedMappings.toPath());
-			MappingsDiff diff = MappingUtils.diffMappings(fromMappings, mappings);
-
-			GRAPH_FORMAT.writeDiff(diffFile.toPath(), diff);
+			diffs.put(diffFile, MappingUtils.diffMappings(fromMappings, extendedMappings));
 		}
 
-		FileUtils.forceDelete(tmpDir);
+		session.extend(graphDir, minecraftVersion.id(), extendedMappings, diffs);
+
 		FileUtils.forceDelete(tmpGraphDir);
 	}
 
@@ -129,8 +163,25 @@ public interface MappingsGraph {
 	}
 
 	default void loadMappings(String minecraftVersion, File graphDir, File output, Format outputFormat, MappingValidator validator) throws IOException {
-		VersionGraph graph = VersionGraph.of(GRAPH_FORMAT, graphDir.toPath());
-		Mappings mappings = MappingUtils.separateMappings(graph, minecraftVersion);
+		MappingsGraphSession session = getGraphSession().get();
+
+		if (validator == null && outputFormat == GRAPH_FORMAT) {
+			// the mappings are not changed on the way out, so they can be
+			// written without being parsed at all if a checkpoint exists
+			session.writeSeparatedMappings(graphDir, minecraftVersion, output);
+			return;
+		}
+
+		String validatorName = (validator == null) ? "unvalidated" : Validators.getName(validator);
+
+		if (validatorName != null) {
+			// the output only depends on the checkpoint, the validator and the
+			// format, so it is cached alongside the checkpoint and copied from there
+			session.writeSeparatedMappings(graphDir, minecraftVersion, output, outputFormat, validator, validatorName);
+			return;
+		}
+
+		Mappings mappings = session.separateMappings(graphDir, minecraftVersion);
 
 		if (validator != null) {
 			mappings.setValidator(validator);
@@ -144,9 +195,9 @@ public interface MappingsGraph {
 	}
 
 	default void saveMappings(String minecraftVersion, File graphDir, File input, Format inputFormat, MappingsDiffValidator validator, PropagationDirection propagationDir) throws IOException {
-		VersionGraph graph = VersionGraph.of(GRAPH_FORMAT, graphDir.toPath());
+		MappingsGraphSession session = getGraphSession().get();
 
-		Mappings separatedMappings = MappingUtils.separateMappings(graph, minecraftVersion);
+		Mappings separatedMappings = session.separateMappings(graphDir, minecraftVersion);
 		Mappings workingMappings = inputFormat.readMappings(input.toPath());
 		// enigma format does not have namespace info...
 		workingMappings.setSrcNamespace(separatedMappings.getSrcNamespace());
@@ -159,7 +210,7 @@ public interface MappingsGraph {
 		}
 
 		PropagationOptions options = new PropagationOptions.Builder().setPropagationDirection(propagationDir).lenient().build();
-		MappingUtils.insertMappings(options, graph, changes, minecraftVersion);
+		session.insertMappings(graphDir, options, changes, minecraftVersion);
 
 		FileUtils.forceDelete(input);
 	}
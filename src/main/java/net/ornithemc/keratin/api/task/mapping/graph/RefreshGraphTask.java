@@ -2,7 +2,10 @@ package net.ornithemc.keratin.api.task.mapping.graph;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -10,9 +13,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.io.FileUtils;
 import org.gradle.api.provider.Property;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.TaskAction;
 
@@ -24,6 +34,7 @@ import net.ornithemc.keratin.api.settings.BuildNumbers;
 import net.ornithemc.keratin.api.task.KeratinTask;
 import net.ornithemc.keratin.api.task.processing.Nester;
 import net.ornithemc.keratin.cache.BuildNumbersCache;
+import net.ornithemc.keratin.cache.MappingsGraphSession;
 import net.ornithemc.keratin.files.GlobalCache.NestsCache;
 import net.ornithemc.keratin.files.GlobalCache.ProcessedJarsCache;
 import net.ornithemc.keratin.files.KeratinFiles;
@@ -38,6 +49,9 @@ public abstract class RefreshGraphTask extends KeratinTask implements MappingsGr
 	@Internal
 	public abstract Property<String> getClassNamePattern();
 
+	@ServiceReference(MappingsGraphSession.NAME)
+	public abstract Property<MappingsGraphSession> getGraphSession();
+
 	@TaskAction
 	public void run() throws IOException {
 		KeratinGradleExtension keratin = getExtension();
@@ -51,11 +65,16 @@ public abstract class RefreshGraphTask extends KeratinTask implements MappingsGr
 		tmpDir.mkdirs();
 
 		Set<MinecraftVersion> minecraftVersions = getMinecraftVersions(graphDir);
+		Map<String, Set<String>> buildPlan = getBuildPlan(graphDir);
 		BuildNumbersCache nestsBuilds = keratin.getNestsBuilds();
 
-		loadMappings(graphDir, tmpDir, minecraftVersions);
-		rebuildGraph(graphDir, getClassNamePattern().get());
-		upgradeMappings(graphDir, tmpDir, minecraftVersions, nestsBuilds.getBackup(), nestsBuilds);
+		// most of the work is independent per version, only
+		// extending the graph needs the parents to be there
+		try (ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+			loadMappings(graphDir, tmpDir, minecraftVersions, executor);
+			rebuildGraph(graphDir, buildPlan, getClassNamePattern().get(), executor);
+			upgradeMappings(graphDir, tmpDir, minecraftVersions, nestsBuilds.getBackup(), nestsBuilds, executor);
+		}
 
 		FileUtils.forceDelete(tmpDir);
 	}
@@ -64,7 +83,7 @@ public abstract class RefreshGraphTask extends KeratinTask implements MappingsGr
 		KeratinGradleExtension keratin = getExtension();
 
 		Set<MinecraftVersion> minecraftVersions = new HashSet<>();
-		VersionGraph graph = VersionGraph.of(GRAPH_FORMAT, graphDir.toPath());
+		VersionGraph graph = getGraphSession().get().getGraph(graphDir);
 
 		graph.walk(v -> {
 			minecraftVersions.add(keratin.getMinecraftVersion(v.toString()));
@@ -73,60 +92,102 @@ public abstract class RefreshGraphTask extends KeratinTask implements MappingsGr
 		return minecraftVersions;
 	}
 
-	private void loadMappings(File graphDir, File tmpDir, Set<MinecraftVersion> minecraftVersions) throws IOException {
-		for (MinecraftVersion minecraftVersion : minecraftVersions) {
+	private void loadMappings(File graphDir, File tmpDir, Set<MinecraftVersion> minecraftVersions, ExecutorService executor) throws IOException {
+		forEach(minecraftVersions, executor, minecraftVersion -> {
 			loadMappings(
 				minecraftVersion.id(),
 				graphDir,
 				new File(tmpDir, "old." + minecraftVersion.id()),
 				Format.TINY_V2
 			);
-		}
+		});
 	}
 
-	private void rebuildGraph(File graphDir, String classNamePattern) throws IOException {
+	private void rebuildGraph(File graphDir, Map<String, Set<String>> buildPlan, String classNamePattern, ExecutorService executor) throws IOException {
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
 
 		ProcessedJarsCache processedJars = files.getGlobalCache().getProcessedJarsCache();
 
-		MinecraftVersion rootMinecraftVersion = null;
-		File rootMinecraftJar = null;
+		Map<String, MinecraftVersion> minecraftVersions = new LinkedHashMap<>();
+		Map<String, File> minecraftJars = new HashMap<>();
+		Map<String, File> dummyMappings = new ConcurrentHashMap<>();
+
+		for (String version : buildPlan.keySet()) {
+			MinecraftVersion minecraftVersion = keratin.getMinecraftVersion(version);
+
+			minecraftVersions.put(version, minecraftVersion);
+			minecraftJars.put(version, processedJars.getProcessedIntermediaryJar(minecraftVersion, keratin.getProcessorSettings(minecraftVersion)));
+		}
+
+		MappingsGraphSession session = getGraphSession().get();
+
+		// each version is compared against each of its parents, so get
+		// the dummy mappings up front for all of them
+		forEach(buildPlan.keySet(), executor, version -> {
+			File minecraftJar = minecraftJars.get(version);
 
-		Map<String, Set<String>> blueprint = getBuildPlan(graphDir);
+			if (!minecraftJar.exists()) {
+				throw new RuntimeException("cannot rebuild graph for " + version + ": no processed intermediary mapped jar provided!");
+			}
 
-		for (Map.Entry<String, Set<String>> e : blueprint.entrySet()) {
-			String version = e.getKey();
+			dummyMappings.put(version, session.getDummyMappings(minecraftJar, classNamePattern));
+		});
 
-			if (rootMinecraftVersion == null) {
-				rootMinecraftVersion = keratin.getMinecraftVersion(version);
-				rootMinecraftJar = processedJars.getProcessedIntermediaryJar(rootMinecraftVersion, keratin.getProcessorSettings(rootMinecraftVersion));
+		// versions can be added to the graph once all their parents are,
+		// and versions in the same wave do not depend on each other
+		Map<String, Integer> depths = new HashMap<>();
+		Map<Integer, List<String>> waves = new TreeMap<>();
+		String root = null;
 
-				startGraph(graphDir, rootMinecraftVersion, rootMinecraftJar, classNamePattern);
+		for (String version : buildPlan.keySet()) {
+			if (root == null) {
+				root = version;
 			} else {
-				Set<String> parents = e.getValue();
+				waves.computeIfAbsent(depth(version, buildPlan, depths), key -> new ArrayList<>()).add(version);
+			}
+		}
 
-				MinecraftVersion minecraftVersion = keratin.getMinecraftVersion(version);
-				File minecraftJar = processedJars.getProcessedIntermediaryJar(minecraftVersion, keratin.getProcessorSettings(minecraftVersion));
+		if (root == null) {
+			return;
+		}
 
-				List<MinecraftVersion> fromMinecraftVersions = new ArrayList<>();
-				List<File> fromMinecraftJars = new ArrayList<>();
+		startGraph(graphDir, minecraftVersions.get(root), dummyMappings.get(root));
 
-				for (String parent : parents) {
-					MinecraftVersion fromMinecraftVersion = keratin.getMinecraftVersion(parent);
+		for (List<String> wave : waves.values()) {
+			forEach(wave, executor, version -> {
+				List<MinecraftVersion> fromMinecraftVersions = new ArrayList<>();
+				List<File> fromDummyMappings = new ArrayList<>();
 
-					fromMinecraftVersions.add(fromMinecraftVersion);
-					fromMinecraftJars.add(processedJars.getProcessedIntermediaryJar(fromMinecraftVersion, keratin.getProcessorSettings(fromMinecraftVersion)));
+				for (String parent : buildPlan.get(version)) {
+					fromMinecraftVersions.add(minecraftVersions.get(parent));
+					fromDummyMappings.add(dummyMappings.get(parent));
 				}
 
-				extendGraph(graphDir, minecraftVersion, fromMinecraftVersions, minecraftJar, fromMinecraftJars, classNamePattern);
+				extendGraph(graphDir, minecraftVersions.get(version), fromMinecraftVersions, dummyMappings.get(version), fromDummyMappings);
+			});
+		}
+	}
+
+	private static int depth(String version, Map<String, Set<String>> buildPlan, Map<String, Integer> depths) {
+		Integer depth = depths.get(version);
+
+		if (depth == null) {
+			depth = 0;
+
+			for (String parent : buildPlan.getOrDefault(version, Set.of())) {
+				depth = Math.max(depth, depth(parent, buildPlan, depths) + 1);
 			}
+
+			depths.put(version, depth);
 		}
+
+		return depth;
 	}
 
 	private Map<String, Set<String>> getBuildPlan(File graphDir) throws IOException {
 		Map<String, Set<String>> buildplan = new LinkedHashMap<>();
-		VersionGraph graph = VersionGraph.of(GRAPH_FORMAT, graphDir.toPath());
+		VersionGraph graph = getGraphSession().get().getGraph(graphDir);
 
 		graph.walk(v -> {
 			buildplan.computeIfAbsent(v.toString(), key -> {
@@ -143,21 +204,29 @@ public abstract class RefreshGraphTask extends KeratinTask implements MappingsGr
 		return buildplan;
 	}
 
-	private void upgradeMappings(File graphDir, File tmpDir, Set<MinecraftVersion> minecraftVersions, BuildNumbersCache oldNestsBuilds, BuildNumbersCache nestsBuilds) throws IOException {
+	private void upgradeMappings(File graphDir, File tmpDir, Set<MinecraftVersion> minecraftVersions, BuildNumbersCache oldNestsBuilds, BuildNumbersCache nestsBuilds, ExecutorService executor) throws IOException {
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
 
 		NestsCache nestsCache = files.getGlobalCache().getNestsCache();
 
-		for (MinecraftVersion minecraftVersion : minecraftVersions) {
-			File oldMappings = new File(tmpDir, "old." + minecraftVersion.id());
-			File mappings = new File(tmpDir, minecraftVersion.id());
+		Map<MinecraftVersion, File> oldNestsFiles = new HashMap<>();
+		Map<MinecraftVersion, File> nestsFiles = new HashMap<>();
 
+		for (MinecraftVersion minecraftVersion : minecraftVersions) {
 			BuildNumbers oldBuilds = oldNestsBuilds.getBuildNumbers(minecraftVersion);
 			BuildNumbers builds = nestsBuilds.getBuildNumbers(minecraftVersion);
 
-			File oldNests = oldBuilds.isNone() ? null : nestsCache.getMainIntermediaryNestsFile(minecraftVersion, oldBuilds);
-			File nests = builds.isNone() ? null : nestsCache.getMainIntermediaryNestsFile(minecraftVersion, builds);
+			oldNestsFiles.put(minecraftVersion, oldBuilds.isNone() ? null : nestsCache.getMainIntermediaryNestsFile(minecraftVersion, oldBuilds));
+			nestsFiles.put(minecraftVersion, builds.isNone() ? null : nestsCache.getMainIntermediaryNestsFile(minecraftVersion, builds));
+		}
+
+		forEach(minecraftVersions, executor, minecraftVersion -> {
+			File oldMappings = new File(tmpDir, "old." + minecraftVersion.id());
+			File mappings = new File(tmpDir, minecraftVersion.id());
+
+			File oldNests = oldNestsFiles.get(minecraftVersion);
+			File nests = nestsFiles.get(minecraftVersion);
 
 			if (Objects.equals(oldNests, nests)) { // both null or same file
 				Files.copy(oldMappings, mappings);
@@ -176,8 +245,45 @@ public abstract class RefreshGraphTask extends KeratinTask implements MappingsGr
 					Nester._nestMappings(notNestedMappings, mappings, nests);
 				}
 			}
+		});
 
+		// insertions go into the shared graph one at a time
+		for (MinecraftVersion minecraftVersion : minecraftVersions) {
+			File mappings = new File(tmpDir, minecraftVersion.id());
 			saveMappings(minecraftVersion.id(), graphDir, mappings, Format.TINY_V2, Validators.insertDummyMappings(), PropagationDirection.NONE);
 		}
 	}
+
+	private static <T> void forEach(Collection<T> values, ExecutorService executor, VersionAction<T> action) throws IOException {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+		for (T value : values) {
+			futures.add(CompletableFuture.runAsync(() -> {
+				try {
+					action.run(value);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, executor));
+		}
+
+		try {
+			CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException u) {
+				throw u.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException r) {
+				throw r;
+			}
+
+			throw e;
+		}
+	}
+
+	private interface VersionAction<T> {
+
+		void run(T value) throws IOException;
+
+	}
 }
@@ -38,7 +38,7 @@ public abstract class SaveMappingsIntoGraphTask extends MinecraftTask implements
 
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws IOException {
-		getProject().getLogger().lifecycle(":saving mappings into the graph for Minecraft " + minecraftVersion.id());
+		getLogger().lifecycle(":saving mappings into the graph for Minecraft " + minecraftVersion.id());
 
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
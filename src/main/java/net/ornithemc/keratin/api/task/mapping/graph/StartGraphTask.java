@@ -22,7 +22,7 @@ public abstract class StartGraphTask extends MinecraftTask implements MappingsGr
 
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws IOException {
-		getProject().getLogger().lifecycle(":resetting the graph with Minecraft " + minecraftVersion.id() + " as the root");
+		getLogger().lifecycle(":resetting the graph with Minecraft " + minecraftVersion.id() + " as the root");
 
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
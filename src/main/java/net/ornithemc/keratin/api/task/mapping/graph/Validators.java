@@ -17,7 +17,27 @@ import net.ornithemc.mappingutils.io.diff.MappingsDiffValidator;
 
 public class Validators {
 
+	private static final MappingValidator REMOVE_DUMMY_MAPPINGS = createRemoveDummyMappings(false);
+	private static final MappingValidator REMOVE_DUMMY_MAPPINGS_FULL_CLASS_NAMES = createRemoveDummyMappings(true);
+
+	// a name that identifies what the given validator does across builds,
+	// or null if it is not one of the validators defined here
+	public static String getName(MappingValidator validator) {
+		if (validator == REMOVE_DUMMY_MAPPINGS) {
+			return "removeDummyMappings";
+		}
+		if (validator == REMOVE_DUMMY_MAPPINGS_FULL_CLASS_NAMES) {
+			return "removeDummyMappingsFullClassNames";
+		}
+
+		return null;
+	}
+
 	public static final MappingValidator removeDummyMappings(boolean fullClassNames) {
+		return fullClassNames ? REMOVE_DUMMY_MAPPINGS_FULL_CLASS_NAMES : REMOVE_DUMMY_MAPPINGS;
+	}
+
+	private static MappingValidator createRemoveDummyMappings(boolean fullClassNames) {
 		return new MappingValidator() {
 
 			@Override
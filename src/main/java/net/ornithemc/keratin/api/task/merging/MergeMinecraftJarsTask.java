@@ -1,5 +1,7 @@
 package net.ornithemc.keratin.api.task.merging;
 
+import java.util.List;
+
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -11,6 +13,24 @@ import net.ornithemc.keratin.files.KeratinFiles;
 
 public abstract class MergeMinecraftJarsTask extends MergeTask {
 
+	@Override
+	protected long estimateMemory(MinecraftVersion minecraftVersion) {
+		KeratinFiles files = getExtension().getFiles();
+
+		GameJarsCache gameJars = files.getGlobalCache().getGameJarsCache();
+		MappedJarsCache mappedJars = files.getGlobalCache().getMappedJarsCache();
+
+		boolean official = Mapper.OFFICIAL.equals(getNamespace().get());
+
+		if (official ? minecraftVersion.canBeMergedAsObfuscated() : minecraftVersion.canBeMergedAsMapped()) {
+			return official
+				? estimateMemory(List.of(gameJars.getClientJar(minecraftVersion), gameJars.getServerJar(minecraftVersion)))
+				: estimateMemory(List.of(mappedJars.getIntermediaryClientJar(minecraftVersion), mappedJars.getIntermediaryServerJar(minecraftVersion)));
+		}
+
+		return 0;
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		String namespace = getNamespace().get();
@@ -1,5 +1,9 @@
 package net.ornithemc.keratin.api.task.minecraft;
 
+import javax.inject.Inject;
+
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -14,6 +18,33 @@ public abstract class DownloadMinecraftJarsTask extends MinecraftTask implements
 
 	private static final String SERVER_PATH_IN_ZIP = "minecraft-server.jar";
 
+	private DownloadBatch downloads;
+
+	@Inject
+	public DownloadMinecraftJarsTask() {
+		getMaxConcurrentDownloads().convention(MAX_CONCURRENT_DOWNLOADS);
+	}
+
+	@Internal
+	public abstract Property<Integer> getMaxConcurrentDownloads();
+
+	@Override
+	public void run() throws Exception {
+		// the jars of all selected versions are downloaded together,
+		// rather than one version at a time
+		try (DownloadBatch downloads = new DownloadBatch(getMaxConcurrentDownloads().get())) {
+			this.downloads = downloads;
+
+			super.run();
+
+			if (downloads.join()) {
+				getExtension().invalidateCache();
+			}
+		} finally {
+			this.downloads = null;
+		}
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
 		KeratinGradleExtension keratin = getExtension();
@@ -21,43 +52,37 @@ public abstract class DownloadMinecraftJarsTask extends MinecraftTask implements
 
 		GameJarsCache gameJars = files.getGlobalCache().getGameJarsCache();
 
-		boolean minecraftJarsChanged = false;
-
 		if (minecraftVersion.hasClient()) {
 			Download download = minecraftVersion.client().downloads().client();
 
-			minecraftJarsChanged |= download(
+			downloads.submit(() -> downloadAndVerify(
 				download.url(),
 				download.sha1(),
 				gameJars.getClientJarWithJunk(minecraftVersion),
 				false
-			);
+			));
 		}
 		if (minecraftVersion.hasServerJar()) {
 			Download download = minecraftVersion.server().downloads().server();
 
-			minecraftJarsChanged |= download(
+			downloads.submit(() -> downloadAndVerify(
 				download.url(),
 				download.sha1(),
 				gameJars.getServerJarWithJunk(minecraftVersion),
 				false
-			);
+			));
 		}
 		if (minecraftVersion.hasServerZip()) {
 			Download download = minecraftVersion.server().downloads().server_zip();
 
-			minecraftJarsChanged |= downloadAndExtract(
+			downloads.submit(() -> downloadAndVerifyAndExtract(
 				download.url(),
 				download.sha1(),
 				SERVER_PATH_IN_ZIP,
 				gameJars.getServerZipWithJunk(minecraftVersion),
 				gameJars.getServerJarWithJunk(minecraftVersion),
 				false
-			);
-		}
-
-		if (minecraftJarsChanged) {
-			keratin.invalidateCache();
+			));
 		}
 	}
 }
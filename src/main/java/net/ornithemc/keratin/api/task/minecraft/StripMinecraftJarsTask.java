@@ -1,13 +1,10 @@
 package net.ornithemc.keratin.api.task.minecraft;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
-import java.util.jar.JarOutputStream;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 import org.gradle.api.provider.Property;
 import org.gradle.workers.WorkAction;
@@ -20,6 +17,7 @@ import net.ornithemc.keratin.api.manifest.VersionDetails;
 import net.ornithemc.keratin.api.task.MinecraftTask;
 import net.ornithemc.keratin.files.GlobalCache.GameJarsCache;
 import net.ornithemc.keratin.files.KeratinFiles;
+import net.ornithemc.keratin.util.ZipUtils;
 
 public abstract class StripMinecraftJarsTask extends MinecraftTask {
 
@@ -99,43 +97,21 @@ public abstract class StripMinecraftJarsTask extends MinecraftTask {
 		}
 
 		private void copyJarWithClassFilter(File input, File output, String filter) throws IOException {
-			try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(output))) {
-				byte[] buffer = new byte[4096];
-				int read = 0;
+			Predicate<String> classFilter = ".*".equals(filter)
+				? className -> true
+				: Pattern.compile(filter).asMatchPredicate();
 
-				try (JarInputStream jis = new JarInputStream(new FileInputStream(input))) {
-					for (JarEntry entry; (entry = jis.getNextJarEntry()) != null; ) {
-						String fileName = entry.getName();
-
-						if (!fileName.endsWith(".class")) {
-							continue;
-						}
-
-						String className = fileName.substring(0, fileName.length() - ".class".length());
-
-						if (!className.matches(filter)) {
-							continue;
-						}
-
-						jos.putNextEntry(new JarEntry(entry.getName()));
-
-						while ((read = jis.read(buffer)) > 0) {
-							jos.write(buffer, 0, read);
-						}
-
-						jos.flush();
-						jos.closeEntry();
+			try {
+				ZipUtils.copyEntries(input, output, fileName -> {
+					if (!fileName.endsWith(".class")) {
+						return false;
 					}
-				}
 
-				jos.finish();
-			} catch (IOException e) {
-				try {
-					output.delete();
-				} catch (Exception ee) {
-					new IOException("unable to delete corrupted jar file after error", ee).printStackTrace();
-				}
+					String className = fileName.substring(0, fileName.length() - ".class".length());
 
+					return classFilter.test(className);
+				});
+			} catch (IOException e) {
 				throw new IOException("error while copying " + input.getName() + " to " + output.getName() + " with class filter " + filter, e);
 			}
 		}
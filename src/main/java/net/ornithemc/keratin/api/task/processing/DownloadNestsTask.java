@@ -1,5 +1,9 @@
 package net.ornithemc.keratin.api.task.processing;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -15,6 +19,18 @@ public abstract class DownloadNestsTask extends MinecraftTask implements Downloa
 
 	private static final String PATH_IN_JAR = "nests/mappings.nest";
 
+	@Override
+	protected void prefetch(List<MinecraftVersion> minecraftVersions) {
+		KeratinGradleExtension keratin = getExtension();
+		Map<String, Integer> builds = new LinkedHashMap<>();
+
+		for (MinecraftVersion minecraftVersion : minecraftVersions) {
+			builds.putAll(MultipleBuildsMavenArtifacts.findBuilds(minecraftVersion, keratin.getNestsBuilds(minecraftVersion)));
+		}
+
+		keratin.getNestsArtifacts().prefetch(builds);
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
 		KeratinGradleExtension keratin = getExtension();
@@ -0,0 +1,270 @@
+package net.ornithemc.keratin.api.task.processing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+public class IncrementalProcessing {
+
+	// beyond this fraction of the jar a full run is cheaper than two partial ones
+	private static final double MAX_AFFECTED_FRACTION = 0.5;
+
+	private static final Pattern DESCRIPTOR_CLASS = Pattern.compile("L([^;<>]+)[;<]");
+
+	private final File input;
+	private final Map<String, byte[]> classes;
+
+	public IncrementalProcessing(File input) throws IOException {
+		this.input = input;
+		this.classes = new HashMap<>();
+
+		try (ZipFile jar = new ZipFile(input)) {
+			for (Enumeration<? extends ZipEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+				ZipEntry entry = entries.nextElement();
+				String name = entry.getName();
+
+				if (name.endsWith(".class")) {
+					try (InputStream is = jar.getInputStream(entry)) {
+						classes.put(name.substring(0, name.length() - ".class".length()), is.readAllBytes());
+					}
+				}
+			}
+		}
+	}
+
+	// returns the classes that need reprocessing, or null if a full run should be done
+	public Set<String> findAffectedClasses(File oldExceptions, File newExceptions, File oldSignatures, File newSignatures, File oldNests, File newNests) throws IOException {
+		Set<String> affected = new LinkedHashSet<>();
+
+		affected.addAll(findChangedClasses(oldExceptions, newExceptions));
+		affected.addAll(findChangedClasses(oldSignatures, newSignatures));
+
+		Set<String> nested = findChangedClasses(oldNests, newNests);
+
+		if (!nested.isEmpty()) {
+			affected.addAll(nested);
+			// nesting renames classes, so anything that references
+			// them needs its references updated as well
+			affected.addAll(findReferencingClasses(nested));
+		}
+
+		if (affected.size() > classes.size() * MAX_AFFECTED_FRACTION) {
+			return null;
+		}
+
+		return affected;
+	}
+
+	// reprocess the affected classes with both the old and new data files, then
+	// swap the old results for the new ones in a copy of the previous jar
+	public void run(Set<String> affected, File previousOutput, File output, Stages oldStages, Stages newStages) throws IOException {
+		File dir = output.getParentFile();
+
+		File subJar = new File(dir, ".tmp.incremental." + output.getName());
+		File classPathJar = new File(dir, ".tmp.incremental.classpath." + output.getName());
+		File oldSubJar = new File(dir, ".tmp.incremental.old." + output.getName());
+		File newSubJar = new File(dir, ".tmp.incremental.new." + output.getName());
+		File tmpOutput = new File(dir, ".tmp.incremental.out." + output.getName());
+
+		try {
+			if (!affected.isEmpty()) {
+				writeClasses(affected, subJar);
+				// the affected classes are left off the class path, so that the
+				// stages never see them twice, once processed and once not
+				writeClasses(getUnaffectedClasses(affected), classPathJar);
+
+				oldStages.createPipeline(classPathJar).run(subJar, oldSubJar);
+				newStages.createPipeline(classPathJar).run(subJar, newSubJar);
+
+				splice(previousOutput, oldSubJar, newSubJar, tmpOutput);
+			} else {
+				Files.copy(previousOutput.toPath(), tmpOutput.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			Files.move(tmpOutput.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(subJar.toPath());
+			Files.deleteIfExists(classPathJar.toPath());
+			Files.deleteIfExists(oldSubJar.toPath());
+			Files.deleteIfExists(newSubJar.toPath());
+			Files.deleteIfExists(tmpOutput.toPath());
+		}
+	}
+
+	// data files of all processors are laid out as blocks of lines that start at
+	// column 0 and continue on indented lines - rather than parsing each format,
+	// collect every class of the jar that is mentioned in a block that changed
+	private Set<String> findChangedClasses(File oldFile, File newFile) throws IOException {
+		Set<String> oldBlocks = readBlocks(oldFile);
+		Set<String> newBlocks = readBlocks(newFile);
+
+		Set<String> changed = new HashSet<>();
+
+		for (String block : oldBlocks) {
+			if (!newBlocks.contains(block)) {
+				collectClasses(block, changed);
+			}
+		}
+		for (String block : newBlocks) {
+			if (!oldBlocks.contains(block)) {
+				collectClasses(block, changed);
+			}
+		}
+
+		return changed;
+	}
+
+	private static Set<String> readBlocks(File file) throws IOException {
+		if (file == null || !file.exists()) {
+			return Collections.emptySet();
+		}
+
+		Set<String> blocks = new HashSet<>();
+		StringBuilder block = new StringBuilder();
+
+		for (String line : Files.readAllLines(file.toPath())) {
+			if (!line.isEmpty() && !Character.isWhitespace(line.charAt(0)) && block.length() > 0) {
+				blocks.add(block.toString());
+				block.setLength(0);
+			}
+
+			block.append(line).append('\n');
+		}
+		if (block.length() > 0) {
+			blocks.add(block.toString());
+		}
+
+		return blocks;
+	}
+
+	private void collectClasses(String block, Set<String> changed) {
+		for (String token : block.split("\\s+")) {
+			if (classes.containsKey(token)) {
+				changed.add(token);
+			}
+
+			Matcher m = DESCRIPTOR_CLASS.matcher(token);
+
+			while (m.find()) {
+				if (classes.containsKey(m.group(1))) {
+					changed.add(m.group(1));
+				}
+			}
+		}
+	}
+
+	private Set<String> findReferencingClasses(Set<String> names) {
+		Set<String> referencing = new HashSet<>();
+
+		// class names are ascii, so they are encoded the same way in the constant pool
+		List<byte[]> patterns = names.stream().map(name -> name.getBytes(StandardCharsets.ISO_8859_1)).toList();
+
+		for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+			for (byte[] pattern : patterns) {
+				if (contains(e.getValue(), pattern)) {
+					referencing.add(e.getKey());
+					break;
+				}
+			}
+		}
+
+		return referencing;
+	}
+
+	private static boolean contains(byte[] bytes, byte[] pattern) {
+		outer:
+		for (int i = 0; i <= bytes.length - pattern.length; i++) {
+			for (int j = 0; j < pattern.length; j++) {
+				if (bytes[i + j] != pattern[j]) {
+					continue outer;
+				}
+			}
+
+			return true;
+		}
+
+		return false;
+	}
+
+	private Set<String> getUnaffectedClasses(Set<String> affected) {
+		Set<String> unaffected = new HashSet<>(classes.keySet());
+		unaffected.removeAll(affected);
+
+		return unaffected;
+	}
+
+	private void writeClasses(Set<String> names, File jar) throws IOException {
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar.toPath()))) {
+			for (String name : names) {
+				zos.putNextEntry(new ZipEntry(name + ".class"));
+				zos.write(classes.get(name));
+				zos.closeEntry();
+			}
+		}
+	}
+
+	private static void splice(File previousOutput, File oldSubJar, File newSubJar, File output) throws IOException {
+		Set<String> replaced = new HashSet<>();
+
+		try (ZipFile oldSub = new ZipFile(oldSubJar)) {
+			for (Enumeration<? extends ZipEntry> entries = oldSub.entries(); entries.hasMoreElements(); ) {
+				replaced.add(entries.nextElement().getName());
+			}
+		}
+
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(output.toPath()));
+			ZipFile previous = new ZipFile(previousOutput);
+			ZipFile newSub = new ZipFile(newSubJar)) {
+			Set<String> written = new HashSet<>();
+
+			for (Enumeration<? extends ZipEntry> entries = newSub.entries(); entries.hasMoreElements(); ) {
+				ZipEntry entry = entries.nextElement();
+
+				if (written.add(entry.getName())) {
+					copyEntry(newSub, entry, zos);
+				}
+			}
+			for (Enumeration<? extends ZipEntry> entries = previous.entries(); entries.hasMoreElements(); ) {
+				ZipEntry entry = entries.nextElement();
+
+				if (!replaced.contains(entry.getName()) && written.add(entry.getName())) {
+					copyEntry(previous, entry, zos);
+				}
+			}
+		}
+	}
+
+	private static void copyEntry(ZipFile jar, ZipEntry entry, ZipOutputStream zos) throws IOException {
+		zos.putNextEntry(new ZipEntry(entry.getName()));
+
+		try (InputStream is = jar.getInputStream(entry)) {
+			is.transferTo(zos);
+		}
+
+		zos.closeEntry();
+	}
+
+	public interface Stages {
+
+		// the classes of the input jar that are not reprocessed are passed
+		// so that they can be put on the class path
+		ProcessingPipeline createPipeline(File classPath);
+
+	}
+}
@@ -1,7 +1,12 @@
 package net.ornithemc.keratin.api.task.processing;
 
+import java.io.File;
+import java.util.List;
+
+import javax.inject.Inject;
+
 import org.gradle.api.provider.Property;
-import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Input;
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -14,14 +19,47 @@ import net.ornithemc.keratin.files.GlobalCache.LibrariesCache;
 import net.ornithemc.keratin.files.GlobalCache.MappedJarsCache;
 import net.ornithemc.keratin.files.GlobalCache.NestsCache;
 import net.ornithemc.keratin.files.GlobalCache.ProcessedJarsCache;
+import net.ornithemc.keratin.files.GlobalCache.ProcessedJarsCache.PreviousProcessedJar;
 import net.ornithemc.keratin.files.GlobalCache.SignaturesCache;
 import net.ornithemc.keratin.files.KeratinFiles;
 
 public abstract class ProcessMinecraftTask extends MinecraftTask implements Processor {
 
-	@Internal
+	@Inject
+	public ProcessMinecraftTask() {
+		declareFiles();
+		forkWorkers();
+	}
+
+	@Input
 	public abstract Property<Boolean> getForDecompile();
 
+	@Override
+	protected void collectInputs(MinecraftVersion minecraftVersion, List<File> inputs) {
+		GlobalCache globalCache = getExtension().getFiles().getGlobalCache();
+		ProcessorSettings settings = getProcessorSettings(minecraftVersion);
+
+		inputs.add(globalCache.getMappedJarsCache().getMainIntermediaryJar(minecraftVersion));
+		inputs.add(globalCache.getExceptionsCache().getMainIntermediaryExceptionsFile(minecraftVersion, settings.exceptionsBuilds()));
+		inputs.add(globalCache.getSignaturesCache().getMainIntermediarySignaturesFile(minecraftVersion, settings.signaturesBuilds()));
+		inputs.add(globalCache.getNestsCache().getMainIntermediaryNestsFile(minecraftVersion, settings.nestsBuilds()));
+	}
+
+	@Override
+	protected void collectOutputs(MinecraftVersion minecraftVersion, List<File> outputs) {
+		GlobalCache globalCache = getExtension().getFiles().getGlobalCache();
+
+		outputs.add(globalCache.getProcessedJarsCache().getProcessedIntermediaryJar(minecraftVersion, getProcessorSettings(minecraftVersion)));
+	}
+
+	private ProcessorSettings getProcessorSettings(MinecraftVersion minecraftVersion) {
+		KeratinGradleExtension keratin = getExtension();
+
+		return getForDecompile().get()
+			? keratin.getProcessorSettingsForDecompile(minecraftVersion)
+			: keratin.getProcessorSettings(minecraftVersion);
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		KeratinGradleExtension keratin = getExtension();
@@ -35,12 +73,16 @@ public abstract class ProcessMinecraftTask extends MinecraftTask implements Proc
 		NestsCache nests = globalCache.getNestsCache();
 		LibrariesCache libraries = globalCache.getLibrariesCache();
 
-		ProcessorSettings settings = getForDecompile().get()
-			? keratin.getProcessorSettingsForDecompile(minecraftVersion)
-			: keratin.getProcessorSettings(minecraftVersion);
+		ProcessorSettings settings = getProcessorSettings(minecraftVersion);
+		boolean overwrite = shouldOverwrite(minecraftVersion);
+
+		// only consider earlier outputs if asked to, and if the cache is still trusted
+		PreviousProcessedJar previous = (!keratin.getIncrementalProcessing().get() || keratin.isCacheInvalid())
+			? null
+			: processedJars.findPreviousProcessedJar(minecraftVersion, settings);
 
 		workQueue.submit(ProcessMinecraft.class, parameters -> {
-			parameters.getOverwrite().set(keratin.isCacheInvalid());
+			parameters.getOverwrite().set(overwrite);
 			parameters.getInputJar().set(mappedJars.getMainIntermediaryJar(minecraftVersion));
 			parameters.getOutputJar().set(processedJars.getProcessedIntermediaryJar(minecraftVersion, settings));
 			parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
@@ -48,6 +90,13 @@ public abstract class ProcessMinecraftTask extends MinecraftTask implements Proc
 			parameters.getExceptionsFile().set(exceptions.getMainIntermediaryExceptionsFile(minecraftVersion, settings.exceptionsBuilds()));
 			parameters.getSignaturesFile().set(signatures.getMainIntermediarySignaturesFile(minecraftVersion, settings.signaturesBuilds()));
 			parameters.getNestsFile().set(nests.getMainIntermediaryNestsFile(minecraftVersion, settings.nestsBuilds()));
+
+			if (previous != null) {
+				parameters.getPreviousOutputJar().set(previous.jar());
+				parameters.getPreviousExceptionsFile().set(previous.exceptions());
+				parameters.getPreviousSignaturesFile().set(previous.signatures());
+				parameters.getPreviousNestsFile().set(previous.nests());
+			}
 		});
 	}
 }
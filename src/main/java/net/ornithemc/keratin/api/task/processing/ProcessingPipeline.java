@@ -0,0 +1,94 @@
+package net.ornithemc.keratin.api.task.processing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProcessingPipeline {
+
+	private final List<Stage> stages;
+
+	public ProcessingPipeline() {
+		this.stages = new ArrayList<>();
+	}
+
+	// stages that can modify the working jar in place
+	public ProcessingPipeline then(Stage stage) {
+		stages.add(stage);
+		return this;
+	}
+
+	// stages that must read from one jar and write to another
+	public ProcessingPipeline thenTransform(Stage stage) {
+		stages.add(new TransformStage(stage));
+		return this;
+	}
+
+	public boolean isEmpty() {
+		return stages.isEmpty();
+	}
+
+	public void run(File input, File output) throws IOException {
+		File work = new File(output.getParentFile(), ".tmp." + output.getName());
+		File swap = new File(output.getParentFile(), ".tmp.swap." + output.getName());
+
+		try {
+			Files.deleteIfExists(work.toPath());
+			Files.deleteIfExists(swap.toPath());
+
+			// the first in-place stage copies the input into the working jar,
+			// after which every in-place stage shares that one working jar
+			File current = input;
+
+			for (int i = 0; i < stages.size(); i++) {
+				Stage stage = stages.get(i);
+				File target;
+
+				if (stage instanceof TransformStage) {
+					if (i == stages.size() - 1) {
+						target = output;
+					} else {
+						target = (current == work) ? swap : work;
+					}
+
+					Files.deleteIfExists(target.toPath());
+				} else {
+					target = (current == swap) ? swap : work;
+				}
+
+				stage.apply(current, target);
+				current = target;
+			}
+
+			if (current == input) {
+				Files.copy(input.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} else if (current != output) {
+				Files.move(current.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException | RuntimeException e) {
+			// never leave a partial jar behind, it would be taken as up to date
+			Files.deleteIfExists(output.toPath());
+			throw e;
+		} finally {
+			Files.deleteIfExists(work.toPath());
+			Files.deleteIfExists(swap.toPath());
+		}
+	}
+
+	public interface Stage {
+
+		void apply(File input, File output) throws IOException;
+
+	}
+
+	private record TransformStage(Stage stage) implements Stage {
+
+		@Override
+		public void apply(File input, File output) throws IOException {
+			stage.apply(input, output);
+		}
+	}
+}
@@ -1,15 +1,16 @@
 package net.ornithemc.keratin.api.task.processing;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
+import org.gradle.api.logging.Logging;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.workers.WorkAction;
 import org.gradle.workers.WorkParameters;
 
-import com.google.common.io.Files;
-
 import net.ornithemc.keratin.KeratinGradleExtension;
 
 public interface Processor {
@@ -32,6 +33,14 @@ public interface Processor {
 
 		Property<File> getNestsFile();
 
+		Property<File> getPreviousOutputJar();
+
+		Property<File> getPreviousExceptionsFile();
+
+		Property<File> getPreviousSignaturesFile();
+
+		Property<File> getPreviousNestsFile();
+
 	}
 
 	abstract class ProcessMinecraft implements WorkAction<MinecraftProcessorParameters>, Condor, Exceptor, SignaturePatcher, Preen, Nester {
@@ -40,7 +49,6 @@ public interface Processor {
 		public void execute() {
 			boolean overwrite = getParameters().getOverwrite().get();
 
-			File data;
 			File jarIn = getParameters().getInputJar().get();
 			File jarOut = getParameters().getOutputJar().get();
 
@@ -49,59 +57,82 @@ public interface Processor {
 					return;
 				}
 
-				{
-					Files.copy(jarIn, jarOut);
+				if (!processIncrementally(jarIn, jarOut)) {
+					createPipeline().run(jarIn, jarOut);
 				}
+			} catch (Exception e) {
+				throw new RuntimeException("error while processing Minecraft", e);
+			}
+		}
 
-				data = null;
-
-				{
-					jarIn = jarOut;
-					jarOut = getParameters().getOutputJar().get();
-					List<File> libraries = getParameters().getLibraries().get();
-					boolean obfuscateNames = getParameters().getObfuscateVariableNames().get();
+		protected boolean processIncrementally(File jarIn, File jarOut) {
+			File previousJar = getParameters().getPreviousOutputJar().getOrNull();
 
-					lvtPatchJar(jarIn, jarOut, libraries, obfuscateNames);
-				}
+			if (previousJar == null || !previousJar.exists()) {
+				return false;
+			}
 
-				data = getParameters().getExceptionsFile().getOrNull();
+			File exceptions = getParameters().getExceptionsFile().getOrNull();
+			File signatures = getParameters().getSignaturesFile().getOrNull();
+			File nests = getParameters().getNestsFile().getOrNull();
+			File previousExceptions = getParameters().getPreviousExceptionsFile().getOrNull();
+			File previousSignatures = getParameters().getPreviousSignaturesFile().getOrNull();
+			File previousNests = getParameters().getPreviousNestsFile().getOrNull();
 
-				if (data != null) {
-					jarIn = jarOut;
-					jarOut = getParameters().getOutputJar().get();
+			try {
+				IncrementalProcessing incremental = new IncrementalProcessing(jarIn);
+				Set<String> affected = incremental.findAffectedClasses(previousExceptions, exceptions, previousSignatures, signatures, previousNests, nests);
 
-					exceptionsPatchJar(jarIn, jarOut, data);
+				if (affected == null) {
+					return false;
 				}
 
-				data = getParameters().getSignaturesFile().getOrNull();
+				incremental.run(affected, previousJar, jarOut,
+					classPath -> createPipeline(classPath, previousExceptions, previousSignatures, previousNests),
+					classPath -> createPipeline(classPath, exceptions, signatures, nests));
+
+				return true;
+			} catch (Exception e) {
+				// anything unexpected, fall back to processing the whole jar
+				Logging.getLogger(Processor.class).warn("unable to incrementally process " + jarOut.getName() + ", processing the whole jar instead", e);
+				return false;
+			}
+		}
 
-				if (data != null) {
-					jarIn = jarOut;
-					jarOut = getParameters().getOutputJar().get();
+		protected ProcessingPipeline createPipeline() {
+			File exceptions = getParameters().getExceptionsFile().getOrNull();
+			File signatures = getParameters().getSignaturesFile().getOrNull();
+			File nests = getParameters().getNestsFile().getOrNull();
 
-					signaturePatchJar(jarIn, jarOut, data);
-				}
+			return createPipeline(null, exceptions, signatures, nests);
+		}
 
-				data = null;
+		protected ProcessingPipeline createPipeline(File classPath, File exceptions, File signatures, File nests) {
+			List<File> libraries = new ArrayList<>(getParameters().getLibraries().get());
+			boolean obfuscateNames = getParameters().getObfuscateVariableNames().get();
 
-				{
-					jarIn = jarOut;
-					jarOut = getParameters().getOutputJar().get();
+			if (classPath != null) {
+				libraries.add(classPath);
+			}
 
-					modifyMergedBridgeMethodsAccess(jarIn, jarOut);
-				}
+			ProcessingPipeline pipeline = new ProcessingPipeline();
 
-				data = getParameters().getNestsFile().getOrNull();
+			pipeline.then((jarIn, jarOut) -> lvtPatchJar(jarIn, jarOut, libraries, obfuscateNames));
 
-				if (data != null) {
-					jarIn = jarOut;
-					jarOut = getParameters().getOutputJar().get();
+			if (exceptions != null) {
+				pipeline.then((jarIn, jarOut) -> exceptionsPatchJar(jarIn, jarOut, exceptions));
+			}
+			if (signatures != null) {
+				pipeline.then((jarIn, jarOut) -> signaturePatchJar(jarIn, jarOut, signatures));
+			}
 
-					nestJar(jarIn, jarOut, data);
-				}
-			} catch (Exception e) {
-				throw new RuntimeException("error while processing Minecraft", e);
+			pipeline.then((jarIn, jarOut) -> modifyMergedBridgeMethodsAccess(jarIn, jarOut));
+
+			if (nests != null) {
+				pipeline.thenTransform((jarIn, jarOut) -> nestJar(jarIn, jarOut, nests));
 			}
+
+			return pipeline;
 		}
 	}
 }
@@ -12,7 +12,7 @@ import net.ornithemc.keratin.cache.BuildNumbersCache;
 public abstract class UpdateBuildsCacheTask extends KeratinTask {
 
 	void updateCache(BuildNumbersCache cache, MultipleBuildsMavenArtifacts artifacts) throws IOException {
-		getProject().getLogger().lifecycle(":updating builds cache " + cache.getFile().getName());
+		getLogger().lifecycle(":updating builds cache " + cache.getFile().getName());
 
 		cache.backUp();
 		cache.update(artifacts.getLatestBuilds());
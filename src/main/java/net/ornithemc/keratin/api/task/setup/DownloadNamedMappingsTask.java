@@ -1,5 +1,9 @@
 package net.ornithemc.keratin.api.task.setup;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -14,6 +18,27 @@ public abstract class DownloadNamedMappingsTask extends MinecraftTask implements
 
 	private static final String PATH_IN_JAR = "mappings/mappings.tiny";
 
+	@Override
+	protected void prefetch(List<MinecraftVersion> minecraftVersions) {
+		KeratinGradleExtension keratin = getExtension();
+		Map<String, Integer> builds = new LinkedHashMap<>();
+
+		for (MinecraftVersion minecraftVersion : minecraftVersions) {
+			if (minecraftVersion.hasSharedVersioning()) {
+				builds.put(minecraftVersion.id(), keratin.getNamedMappingsBuild(minecraftVersion.id()));
+			} else {
+				if (minecraftVersion.hasClient()) {
+					builds.put(minecraftVersion.client().id(), keratin.getNamedMappingsBuild(minecraftVersion.client().id()));
+				}
+				if (minecraftVersion.hasServer()) {
+					builds.put(minecraftVersion.server().id(), keratin.getNamedMappingsBuild(minecraftVersion.server().id()));
+				}
+			}
+		}
+
+		keratin.getNamedMappingsArtifacts().prefetch(builds);
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
 		boolean namedMappingsChanged = false;
@@ -32,6 +32,11 @@ public abstract class MakeSetupExceptionsTask extends MinecraftTask {
 	@Internal
 	public abstract Property<String> getFromMinecraftVersion();
 
+	@Override
+	protected boolean isInlineWorkThreadSafe() {
+		return true;
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
 		KeratinGradleExtension keratin = getExtension();
@@ -16,6 +16,7 @@ import net.ornithemc.keratin.api.settings.BuildNumbers;
 import net.ornithemc.keratin.api.task.MinecraftTask;
 import net.ornithemc.keratin.api.task.mapping.Mapper;
 import net.ornithemc.keratin.api.task.processing.Nester;
+import net.ornithemc.keratin.cache.ClassPathIndex;
 import net.ornithemc.keratin.files.ExceptionsAndSignaturesDevelopmentFiles.SetupFiles;
 import net.ornithemc.keratin.files.GlobalCache;
 import net.ornithemc.keratin.files.GlobalCache.GameJarsCache;
@@ -50,6 +51,7 @@ public abstract class MakeSetupMappingsTask extends MinecraftTask {
 				parameters.getOutputMappings().set(setupFiles.getMergedIntermediaryMappingsFile(minecraftVersion));
 				parameters.getJar().set(gameJars.getMergedJar(minecraftVersion));
 				parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+				parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 				parameters.getTargetNamespace().set(Mapper.INTERMEDIARY);
 				parameters.getNestsFile().set(nests.getMergedNestsFile(minecraftVersion, nestsBuilds));
 			});
@@ -58,6 +60,7 @@ public abstract class MakeSetupMappingsTask extends MinecraftTask {
 				parameters.getOutputMappings().set(setupFiles.getMergedNamedMappingsFile(minecraftVersion));
 				parameters.getJar().set(mappedJars.getIntermediaryMergedJar(minecraftVersion));
 				parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+				parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 				parameters.getTargetNamespace().set(Mapper.NAMED);
 				parameters.getNestsFile().set(nests.getIntermediaryMergedNestsFile(minecraftVersion, nestsBuilds));
 			});
@@ -70,6 +73,7 @@ public abstract class MakeSetupMappingsTask extends MinecraftTask {
 					parameters.getOutputMappings().set(setupFiles.getClientIntermediaryMappingsFile(minecraftVersion));
 					parameters.getJar().set(gameJars.getClientJar(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getTargetNamespace().set(Mapper.INTERMEDIARY);
 					parameters.getNestsFile().set(nests.getClientNestsFile(minecraftVersion, nestsBuilds));
 				});
@@ -78,6 +82,7 @@ public abstract class MakeSetupMappingsTask extends MinecraftTask {
 					parameters.getOutputMappings().set(setupFiles.getClientNamedMappingsFile(minecraftVersion));
 					parameters.getJar().set(mappedJars.getIntermediaryClientJar(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getTargetNamespace().set(Mapper.NAMED);
 					parameters.getNestsFile().set(nests.getIntermediaryClientNestsFile(minecraftVersion, nestsBuilds));
 				});
@@ -90,6 +95,7 @@ public abstract class MakeSetupMappingsTask extends MinecraftTask {
 					parameters.getOutputMappings().set(setupFiles.getServerIntermediaryMappingsFile(minecraftVersion));
 					parameters.getJar().set(gameJars.getServerJar(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getTargetNamespace().set(Mapper.INTERMEDIARY);
 					parameters.getNestsFile().set(nests.getServerNestsFile(minecraftVersion, nestsBuilds));
 				});
@@ -98,6 +104,7 @@ public abstract class MakeSetupMappingsTask extends MinecraftTask {
 					parameters.getOutputMappings().set(setupFiles.getServerNamedMappingsFile(minecraftVersion));
 					parameters.getJar().set(mappedJars.getIntermediaryServerJar(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getTargetNamespace().set(Mapper.NAMED);
 					parameters.getNestsFile().set(nests.getIntermediaryServerNestsFile(minecraftVersion, nestsBuilds));
 				});
@@ -119,6 +126,8 @@ public abstract class MakeSetupMappingsTask extends MinecraftTask {
 
 		Property<File> getNestsFile();
 
+		Property<ClassPathIndex> getClassPathIndex();
+
 	}
 
 	public static abstract class MakeSetupMappings implements WorkAction<SetupMappingsParameters>, MappingsFiller, Nester {
@@ -131,6 +140,7 @@ public abstract class MakeSetupMappingsTask extends MinecraftTask {
 			File output = getParameters().getOutputMappings().get();
 			String targetNs = getParameters().getTargetNamespace().get();
 			File nests = getParameters().getNestsFile().getOrNull();
+			ClassPathIndex classPath = getParameters().getClassPathIndex().getOrNull();
 
 			try {
 				fillMethodMappings(
@@ -138,6 +148,7 @@ public abstract class MakeSetupMappingsTask extends MinecraftTask {
 					output,
 					jar,
 					libraries,
+					classPath,
 					targetNs
 				);
 			} catch (IOException e) {
@@ -33,6 +33,11 @@ public abstract class MakeSetupSignaturesTask extends MinecraftTask {
 	@Internal
 	public abstract Property<String> getFromMinecraftVersion();
 
+	@Override
+	protected boolean isInlineWorkThreadSafe() {
+		return true;
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
 		KeratinGradleExtension keratin = getExtension();
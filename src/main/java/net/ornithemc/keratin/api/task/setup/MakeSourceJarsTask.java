@@ -10,8 +10,6 @@ import org.gradle.workers.WorkAction;
 import org.gradle.workers.WorkParameters;
 import org.gradle.workers.WorkQueue;
 
-import com.google.common.io.Files;
-
 import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.MinecraftVersion;
 import net.ornithemc.keratin.api.settings.BuildNumbers;
@@ -19,6 +17,7 @@ import net.ornithemc.keratin.api.task.MinecraftTask;
 import net.ornithemc.keratin.api.task.processing.Condor;
 import net.ornithemc.keratin.api.task.processing.Exceptor;
 import net.ornithemc.keratin.api.task.processing.Nester;
+import net.ornithemc.keratin.api.task.processing.ProcessingPipeline;
 import net.ornithemc.keratin.api.task.processing.SignaturePatcher;
 import net.ornithemc.keratin.files.ExceptionsAndSignaturesDevelopmentFiles.SetupFiles;
 import net.ornithemc.keratin.files.ExceptionsAndSignaturesDevelopmentFiles.SourceJars;
@@ -104,52 +103,17 @@ public abstract class MakeSourceJarsTask extends MinecraftTask {
 			File signatures = getParameters().getSignatures().get();
 			File nests = getParameters().getNests().getOrNull();
 
-			File tmp1 = new File(output.getParentFile(), ".tmp1." + output.getName());
-			File tmp2 = new File(output.getParentFile(), ".tmp2." + output.getName());
+			ProcessingPipeline pipeline = new ProcessingPipeline()
+				.then((jarIn, jarOut) -> lvtPatchJar(jarIn, jarOut, libraries, true))
+				.then((jarIn, jarOut) -> exceptionsPatchJar(jarIn, jarOut, exceptions))
+				.then((jarIn, jarOut) -> signaturePatchJar(jarIn, jarOut, signatures));
+
+			if (nests != null) {
+				pipeline.thenTransform((jarIn, jarOut) -> nestJar(jarIn, jarOut, nests));
+			}
 
 			try {
-				File jarIn = input;
-				File jarOut = tmp1;
-
-				lvtPatchJar(
-					jarIn,
-					jarOut,
-					libraries,
-					true
-				);
-
-				jarIn = jarOut;
-				jarOut = tmp2;
-
-				exceptionsPatchJar(
-					jarIn,
-					jarOut,
-					exceptions
-				);
-
-				jarIn = jarOut;
-				jarOut = tmp1;
-
-				signaturePatchJar(
-					jarIn,
-					jarOut,
-					signatures
-				);
-				if (nests != null) {
-					jarIn = jarOut;
-					jarOut = tmp2;
-
-					nestJar(
-						jarIn,
-						jarOut,
-						nests
-					);
-				}
-
-				Files.copy(jarOut, output);
-
-				tmp1.delete();
-				tmp2.delete();
+				pipeline.run(input, output);
 			} catch (IOException e) {
 				throw new RuntimeException("error while making source jar", e);
 			}
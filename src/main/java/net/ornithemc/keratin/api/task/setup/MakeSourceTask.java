@@ -2,10 +2,8 @@ package net.ornithemc.keratin.api.task.setup;
 
 import java.io.File;
 
-import org.gradle.api.Project;
 import org.gradle.workers.WorkQueue;
 
-import net.ornithemc.keratin.Configurations;
 import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.MinecraftVersion;
 import net.ornithemc.keratin.api.task.decompiling.DecompileTask;
@@ -18,7 +16,6 @@ public abstract class MakeSourceTask extends DecompileTask {
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		KeratinGradleExtension keratin = getExtension();
-		Project project = keratin.getProject();
 		KeratinFiles files = keratin.getFiles();
 
 		SharedFiles sharedFiles = files.getSharedFiles();
@@ -27,15 +24,12 @@ public abstract class MakeSourceTask extends DecompileTask {
 		File sourceJar = sourceJars.getProcessedNamedJar(minecraftVersion);
 		File decompSrcDir = sharedFiles.getDecompiledSourceDirectory(minecraftVersion);
 
-		submitJavaExecDecompileTask(
+		submitDecompileTask(
 			workQueue,
-			"org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler",
-			project.getConfigurations().getByName(Configurations.DECOMPILE_CLASSPATH),
-			new String[] {
-				"--indent-string=\t",
-				sourceJar.getAbsolutePath(),
-				decompSrcDir.getAbsolutePath()
-			}
+			Engine.VINEFLOWER,
+			sourceJar,
+			decompSrcDir,
+			"--indent-string=\t"
 		);
 	}
 }
@@ -29,6 +29,7 @@ public abstract class MapSetupJarsTask extends MinecraftTask implements Mapper {
 				parameters.getOutput().set(setupJars.getIntermediaryMergedJar(minecraftVersion));
 				parameters.getMappings().set(setupFiles.getMergedIntermediaryMappingsFile(minecraftVersion));
 				parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+				parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 				parameters.getSourceNamespace().set(Mapper.OFFICIAL);
 				parameters.getTargetNamespace().set(Mapper.INTERMEDIARY);
 			});
@@ -40,6 +41,7 @@ public abstract class MapSetupJarsTask extends MinecraftTask implements Mapper {
 					parameters.getOutput().set(setupJars.getIntermediaryClientJar(minecraftVersion));
 					parameters.getMappings().set(setupFiles.getClientIntermediaryMappingsFile(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getSourceNamespace().set(Mapper.OFFICIAL);
 					parameters.getTargetNamespace().set(Mapper.INTERMEDIARY);
 				});
@@ -51,6 +53,7 @@ public abstract class MapSetupJarsTask extends MinecraftTask implements Mapper {
 					parameters.getOutput().set(setupJars.getIntermediaryServerJar(minecraftVersion));
 					parameters.getMappings().set(setupFiles.getServerIntermediaryMappingsFile(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getSourceNamespace().set(Mapper.OFFICIAL);
 					parameters.getTargetNamespace().set(Mapper.INTERMEDIARY);
 				});
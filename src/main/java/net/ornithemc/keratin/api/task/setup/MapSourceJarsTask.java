@@ -29,6 +29,7 @@ public abstract class MapSourceJarsTask extends MinecraftTask implements Mapper
 				parameters.getOutput().set(sourceJars.getNamedMergedJar(minecraftVersion));
 				parameters.getMappings().set(mappings.getMergedMappingsFile(minecraftVersion));
 				parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+				parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 				parameters.getSourceNamespace().set(Mapper.OFFICIAL);
 				parameters.getTargetNamespace().set(Mapper.NAMED);
 			});
@@ -40,6 +41,7 @@ public abstract class MapSourceJarsTask extends MinecraftTask implements Mapper
 					parameters.getOutput().set(sourceJars.getNamedClientJar(minecraftVersion));
 					parameters.getMappings().set(mappings.getClientMappingsFile(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getSourceNamespace().set(Mapper.OFFICIAL);
 					parameters.getTargetNamespace().set(Mapper.NAMED);
 				});
@@ -51,6 +53,7 @@ public abstract class MapSourceJarsTask extends MinecraftTask implements Mapper
 					parameters.getOutput().set(sourceJars.getNamedServerJar(minecraftVersion));
 					parameters.getMappings().set(mappings.getServerMappingsFile(minecraftVersion));
 					parameters.getLibraries().set(libraries.getLibraries(minecraftVersion));
+					parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
 					parameters.getSourceNamespace().set(Mapper.OFFICIAL);
 					parameters.getTargetNamespace().set(Mapper.NAMED);
 				});
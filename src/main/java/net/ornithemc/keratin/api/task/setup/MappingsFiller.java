@@ -34,21 +34,37 @@ import net.fabricmc.mappingio.tree.MappingTree.MethodArgMapping;
 import net.fabricmc.mappingio.tree.MappingTree.MethodMapping;
 import net.fabricmc.mappingio.tree.MemoryMappingTree;
 
+import net.ornithemc.keratin.cache.ClassPathIndex;
+import net.ornithemc.keratin.cache.ClassPathIndex.ClassInfo;
+import net.ornithemc.keratin.cache.ClassPathIndex.Library;
+
 public interface MappingsFiller {
 
 	default void fillMethodMappings(File input, File output, File jar, Collection<File> libraries, String namespace) throws IOException {
-		_propagateMethodMappings(input, output, jar, libraries, namespace, true);
+		_propagateMethodMappings(input, output, jar, libraries, null, namespace, true);
+	}
+
+	default void fillMethodMappings(File input, File output, File jar, Collection<File> libraries, ClassPathIndex classPath, String namespace) throws IOException {
+		_propagateMethodMappings(input, output, jar, libraries, classPath, namespace, true);
 	}
 
 	default void fillSpecializedMethodMappings(File input, File output, File jar, Collection<File> libraries, String namespace) throws IOException {
-		_propagateMethodMappings(input, output, jar, libraries, namespace, false);
+		_propagateMethodMappings(input, output, jar, libraries, null, namespace, false);
+	}
+
+	default void fillSpecializedMethodMappings(File input, File output, File jar, Collection<File> libraries, ClassPathIndex classPath, String namespace) throws IOException {
+		_propagateMethodMappings(input, output, jar, libraries, classPath, namespace, false);
 	}
 
 	static void _propagateMethodMappings(File input, File output, File jar, Collection<File> libraries, String namespace, boolean fillAll) throws IOException {
+		_propagateMethodMappings(input, output, jar, libraries, null, namespace, fillAll);
+	}
+
+	static void _propagateMethodMappings(File input, File output, File jar, Collection<File> libraries, ClassPathIndex classPath, String namespace, boolean fillAll) throws IOException {
 		MemoryMappingTree mappings = new MemoryMappingTree();
 		MappingReader.read(input.toPath(), new MappingDstNsReorder(mappings, List.of(namespace)));
 
-		new MethodMappingPropagator(mappings, namespace, fillAll).run(jar, libraries);
+		new MethodMappingPropagator(mappings, namespace, fillAll).run(jar, libraries, classPath);
 
 		try (MappingWriter writer = MappingWriter.create(output.toPath(), MappingFormat.TINY_2_FILE)) {
 			mappings.accept(writer);
@@ -82,9 +98,17 @@ public interface MappingsFiller {
 		}
 
 		public void run(File jar, Collection<File> libraries) throws IOException {
+			run(jar, libraries, null);
+		}
+
+		public void run(File jar, Collection<File> libraries, ClassPathIndex classPath) throws IOException {
 			readJar(jar, true);
 			for (File library : libraries) {
-				readJar(library, false);
+				if (classPath == null) {
+					readJar(library, false);
+				} else {
+					readLibrary(classPath.getLibrary(library));
+				}
 			}
 			if (named) {
 				findBridgeMethods();
@@ -105,6 +129,24 @@ public interface MappingsFiller {
 			}
 		}
 
+		private void readLibrary(Library library) {
+			for (String className : library.getClassNames()) {
+				ClassInfo info = library.getClassInfo(className);
+
+				superClasses.computeIfAbsent(className, key -> new HashSet<>()).add(info.superName());
+				for (String itf : info.interfaces()) {
+					superClasses.computeIfAbsent(className, key -> new HashSet<>()).add(itf);
+				}
+
+				subClasses.computeIfAbsent(info.superName(), key -> new HashSet<>()).add(className);
+				for (String itf : info.interfaces()) {
+					subClasses.computeIfAbsent(itf, key -> new HashSet<>()).add(className);
+				}
+
+				methodsByClass.computeIfAbsent(className, key -> new HashSet<>()).addAll(info.methods());
+			}
+		}
+
 		private void readJdkClass(String className) {
 			try {
 				ClassReader reader = new ClassReader(className);
@@ -4,7 +4,6 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
-import org.gradle.api.Project;
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -17,16 +16,15 @@ public abstract class SetUpSourceTask extends MinecraftTask {
 
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) throws Exception {
-		Project project = getProject();
 		KeratinGradleExtension keratin = getExtension();
 		KeratinFiles files = keratin.getFiles();
 
 		SharedFiles sharedFiles = files.getSharedFiles();
 
 		File decompSrc = sharedFiles.getDecompiledSourceDirectory(minecraftVersion);
-		File srcJava = project.file("src/main/java/");
+		File srcJava = getLayout().getProjectDirectory().dir("src/main/java").getAsFile();
 
-		project.delete(srcJava);
+		getFileSystemOperations().delete(spec -> spec.delete(srcJava));
 
 		for (Path from : Files.walk(decompSrc.toPath()).toList()) {
 			Path path = decompSrc.toPath().relativize(from);
@@ -40,6 +38,6 @@ public abstract class SetUpSourceTask extends MinecraftTask {
 			}
 		};
 
-		project.delete(decompSrc);
+		getFileSystemOperations().delete(spec -> spec.delete(decompSrc));
 	}
 }
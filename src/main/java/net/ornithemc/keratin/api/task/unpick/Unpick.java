@@ -21,6 +21,9 @@ import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.tree.ClassNode;
 
+import net.ornithemc.keratin.cache.ClassPathIndex;
+import net.ornithemc.keratin.cache.ClassPathIndex.ClassLookup;
+
 public interface Unpick {
 
 	interface UnpickParameters extends WorkParameters {
@@ -35,6 +38,8 @@ public interface Unpick {
 
 		Property<File> getOutputJar();
 
+		Property<ClassPathIndex> getClassPathIndex();
+
 	}
 
 	abstract class UnpickMinecraft implements WorkAction<UnpickParameters>, Unpick {
@@ -46,9 +51,10 @@ public interface Unpick {
 			File unpickConstants = getParameters().getUnpickConstantsJar().get();
 			Set<File> unpickClasspath = getParameters().getUnpickClasspath().get();
 			File output = getParameters().getOutputJar().get();
+			ClassPathIndex classPath = getParameters().getClassPathIndex().getOrNull();
 
 			try {
-				unpickJar(input, output, unpickDefinitions, unpickConstants, unpickClasspath);
+				unpickJar(input, output, unpickDefinitions, unpickConstants, unpickClasspath, classPath);
 			} catch (IOException e) {
 				throw new RuntimeException("error while unpicking Minecraft", e);
 			}
@@ -56,10 +62,18 @@ public interface Unpick {
 	}
 
 	default void unpickJar(File input, File output, File unpickDefinitions, File unpickConstants, Collection<File> unpickClasspath) throws IOException {
-		_unpickJar(input, output, unpickDefinitions, unpickConstants, unpickClasspath);
+		_unpickJar(input, output, unpickDefinitions, unpickConstants, unpickClasspath, null);
+	}
+
+	default void unpickJar(File input, File output, File unpickDefinitions, File unpickConstants, Collection<File> unpickClasspath, ClassPathIndex classPath) throws IOException {
+		_unpickJar(input, output, unpickDefinitions, unpickConstants, unpickClasspath, classPath);
 	}
 
 	static void _unpickJar(File input, File output, File unpickDefinitions, File unpickConstants, Collection<File> unpickClasspath) throws IOException {
+		_unpickJar(input, output, unpickDefinitions, unpickConstants, unpickClasspath, null);
+	}
+
+	static void _unpickJar(File input, File output, File unpickDefinitions, File unpickConstants, Collection<File> unpickClasspath, ClassPathIndex classPath) throws IOException {
         List<ZipFile> classpathZips = new ArrayList<>();
 
         try (
@@ -73,10 +87,41 @@ public interface Unpick {
             classpathZips.add(constantsZip);
             classResolver = classResolver.chain(ClassResolvers.jar(constantsZip));
 
-            for (File file : unpickClasspath) {
-                ZipFile zip = new ZipFile(file);
-                classpathZips.add(zip);
-                classResolver = classResolver.chain(ClassResolvers.jar(zip));
+            // libraries are looked up through a single index, rather than
+            // by searching each jar in turn
+            if (classPath == null) {
+                Map<String, ZipFile> zipsByClass = new HashMap<>();
+
+                for (File file : unpickClasspath) {
+                    ZipFile zip = new ZipFile(file);
+                    classpathZips.add(zip);
+
+                    for (ZipEntry entry : Collections.list(zip.entries())) {
+                        String name = entry.getName();
+
+                        if (name.endsWith(".class")) {
+                            zipsByClass.putIfAbsent(name.substring(0, name.length() - ".class".length()), zip);
+                        }
+                    }
+                }
+
+                classResolver = classResolver.chain(name -> {
+                    ZipFile zip = zipsByClass.get(name);
+
+                    if (zip == null) {
+                        return null;
+                    }
+
+                    try (InputStream is = zip.getInputStream(zip.getEntry(name + ".class"))) {
+                        return new ClassReader(is);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("error reading class " + name + " from " + zip.getName(), e);
+                    }
+                });
+            } else {
+                // libraries are shared between versions, resolve them from the in-memory index
+                ClassLookup lookup = classPath.getClassLookup(unpickClasspath);
+                classResolver = classResolver.chain(lookup::getClassReader);
             }
 
             classResolver = classResolver.chain(ClassResolvers.classpath());
@@ -89,42 +134,33 @@ public interface Unpick {
                             .build())
                     .build();
 
-            try (ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
-                List<CompletableFuture<PendingOutputEntry>> entryFutures = new ArrayList<>();
-                Enumeration<? extends ZipEntry> inputEntries = inputZip.entries();
-
-                while (inputEntries.hasMoreElements()) {
-                    ZipEntry entry = inputEntries.nextElement();
-                    entryFutures.add(CompletableFuture.supplyAsync(() -> {
-                        try {
-                            if (entry.isDirectory()) {
-                                return new PendingOutputEntry(entry.getName(), null);
-                            } else if (!entry.getName().endsWith(".class")) {
-                                return new PendingOutputEntry(entry.getName(), inputZip.getInputStream(entry).readAllBytes());
-                            } else {
-                                ClassNode clazz = new ClassNode();
-                                new ClassReader(inputZip.getInputStream(entry)).accept(clazz, 0);
-                                uninliner.transform(clazz);
-                                ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-                                clazz.accept(writer);
-                                return new PendingOutputEntry(entry.getName(), writer.toByteArray());
-                            }
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    }, executor));
-                }
+            // most classes never reference a target, those are copied as is
+            UnpickTargets targets = UnpickTargets.read(unpickDefinitions);
 
-                for (CompletableFuture<PendingOutputEntry> entryFuture : entryFutures) {
-                    PendingOutputEntry entry = entryFuture.join();
-                    outputZip.putNextEntry(new ZipEntry(entry.name));
+            // classes are unpicked on a shared pool, but only a bounded window of
+            // them at once, and written out in order as soon as they are done, so
+            // that the whole jar never has to be held in memory
+            Deque<CompletableFuture<PendingOutputEntry>> pendingEntries = new ArrayDeque<>();
+            Enumeration<? extends ZipEntry> inputEntries = inputZip.entries();
 
-                    if (entry.data != null) {
-                        outputZip.write(entry.data);
-                    }
+            while (inputEntries.hasMoreElements()) {
+                ZipEntry entry = inputEntries.nextElement();
 
-                    outputZip.closeEntry();
+                if (pendingEntries.size() >= UnpickExecutor.MAX_PENDING_ENTRIES) {
+                    writeEntry(outputZip, pendingEntries.poll().join());
                 }
+
+                pendingEntries.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return unpickEntry(inputZip, entry, uninliner, targets);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, UnpickExecutor.EXECUTOR));
+            }
+
+            while (!pendingEntries.isEmpty()) {
+                writeEntry(outputZip, pendingEntries.poll().join());
             }
         } finally {
             for (ZipFile classpathZip : classpathZips) {
@@ -137,6 +173,57 @@ public interface Unpick {
         }
 	}
 
+    private static PendingOutputEntry unpickEntry(ZipFile inputZip, ZipEntry entry, ConstantUninliner uninliner, UnpickTargets targets) throws IOException {
+        if (entry.isDirectory()) {
+            return new PendingOutputEntry(entry.getName(), null);
+        }
+
+        byte[] bytes;
+
+        try (InputStream is = inputZip.getInputStream(entry)) {
+            bytes = is.readAllBytes();
+        }
+
+        if (!entry.getName().endsWith(".class") || (targets != null && !targets.mayAffect(bytes))) {
+            return new PendingOutputEntry(entry.getName(), bytes);
+        }
+
+        ClassNode clazz = new ClassNode();
+        new ClassReader(bytes).accept(clazz, 0);
+        uninliner.transform(clazz);
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        clazz.accept(writer);
+
+        return new PendingOutputEntry(entry.getName(), writer.toByteArray());
+    }
+
+    private static void writeEntry(ZipOutputStream outputZip, PendingOutputEntry entry) throws IOException {
+        outputZip.putNextEntry(new ZipEntry(entry.name));
+
+        if (entry.data != null) {
+            outputZip.write(entry.data);
+        }
+
+        outputZip.closeEntry();
+    }
+
     record PendingOutputEntry(String name, byte[] data) {
     }
+
+    // a single pool shared by every unpick run in this jvm, so that running
+    // several versions at once does not start a pool of threads for each
+    final class UnpickExecutor {
+
+        private static final int THREADS = Runtime.getRuntime().availableProcessors();
+        private static final int MAX_PENDING_ENTRIES = THREADS * 4;
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "keratin-unpick");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private UnpickExecutor() {
+        }
+    }
 }
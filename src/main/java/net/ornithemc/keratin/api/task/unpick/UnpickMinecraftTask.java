@@ -1,9 +1,15 @@
 package net.ornithemc.keratin.api.task.unpick;
 
 import java.io.File;
+import java.util.List;
+
+import javax.inject.Inject;
 
 import org.gradle.api.provider.Property;
-import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.workers.WorkQueue;
 
 import net.ornithemc.keratin.KeratinGradleExtension;
@@ -17,12 +23,60 @@ import net.ornithemc.keratin.files.MappingsDevelopmentFiles.BuildFiles;
 
 public abstract class UnpickMinecraftTask extends MinecraftTask implements Unpick {
 
-	@Internal
+	@Inject
+	public UnpickMinecraftTask() {
+		declareFiles();
+		forkWorkers();
+	}
+
+	@InputFile
+	@PathSensitive(PathSensitivity.NAME_ONLY)
 	public abstract Property<File> getUnpickConstantsJar();
 
-	@Internal
+	@Input
 	public abstract Property<Boolean> getForDecompile();
 
+	@Override
+	protected void collectInputs(MinecraftVersion minecraftVersion, List<File> inputs) {
+		KeratinFiles files = getExtension().getFiles();
+
+		ProcessedJarsCache processedJars = files.getGlobalCache().getProcessedJarsCache();
+		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
+
+		inputs.add(processedJars.getProcessedIntermediaryJar(minecraftVersion, getProcessorSettings(minecraftVersion)));
+		inputs.add(buildFiles.getProcessedIntermediaryUnpickDefinitionsFile(minecraftVersion));
+	}
+
+	@Override
+	protected void collectOutputs(MinecraftVersion minecraftVersion, List<File> outputs) {
+		BuildFiles buildFiles = getExtension().getFiles().getMappingsDevelopmentFiles().getBuildFiles();
+
+		outputs.add(getOutputJar(buildFiles, minecraftVersion));
+	}
+
+	// classes are streamed through unpick rather than held in memory all at
+	// once, so mostly the constant groups and resolved classes take up heap
+	@Override
+	protected long estimateMemory(MinecraftVersion minecraftVersion) {
+		return super.estimateMemory(minecraftVersion) / 4;
+	}
+
+	private ProcessorSettings getProcessorSettings(MinecraftVersion minecraftVersion) {
+		KeratinGradleExtension keratin = getExtension();
+
+		return getForDecompile().get()
+			? keratin.getProcessorSettingsForDecompile(minecraftVersion)
+			: keratin.getProcessorSettings(minecraftVersion);
+	}
+
+	// the jar for decompiling is processed with different settings, so it
+	// cannot share its output with the jar that enigma opens
+	private File getOutputJar(BuildFiles buildFiles, MinecraftVersion minecraftVersion) {
+		return getForDecompile().get()
+			? buildFiles.getUnpickedProcessedIntermediaryJarForDecompile(minecraftVersion)
+			: buildFiles.getUnpickedProcessedIntermediaryJar(minecraftVersion);
+	}
+
 	@Override
 	public void run(WorkQueue workQueue, MinecraftVersion minecraftVersion) {
 		KeratinGradleExtension keratin = getExtension();
@@ -32,16 +86,15 @@ public abstract class UnpickMinecraftTask extends MinecraftTask implements Unpic
 		LibrariesCache libraries = files.getGlobalCache().getLibrariesCache();
 		BuildFiles buildFiles = files.getMappingsDevelopmentFiles().getBuildFiles();
 
-		ProcessorSettings processorSettings = getForDecompile().get()
-			? keratin.getProcessorSettingsForDecompile(minecraftVersion)
-			: keratin.getProcessorSettings(minecraftVersion);
+		ProcessorSettings processorSettings = getProcessorSettings(minecraftVersion);
 
 		workQueue.submit(UnpickMinecraft.class, parameters -> {
 			parameters.getInputJar().set(processedJars.getProcessedIntermediaryJar(minecraftVersion, processorSettings));
 			parameters.getUnpickDefinitionsFile().set(buildFiles.getProcessedIntermediaryUnpickDefinitionsFile(minecraftVersion));
 			parameters.getUnpickConstantsJar().set(getUnpickConstantsJar().get());
 			parameters.getUnpickClasspath().set(libraries.getLibraries(minecraftVersion));
-			parameters.getOutputJar().set(buildFiles.getUnpickedProcessedIntermediaryJar(minecraftVersion));
+			parameters.getClassPathIndex().set(getClassPathIndexForWorkers());
+			parameters.getOutputJar().set(getOutputJar(buildFiles, minecraftVersion));
 		});
 	}
 }
@@ -0,0 +1,122 @@
+package net.ornithemc.keratin.api.task.unpick;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+// the names of the methods and fields targeted by unpick definitions, used to
+// skip classes that unpick cannot change - constants are only uninlined where
+// they flow into or out of a target, and any class that calls, reads, writes or
+// declares a target member has that member's name in its constant pool
+public class UnpickTargets {
+
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private final Set<String> memberNames;
+
+	private UnpickTargets(Set<String> memberNames) {
+		this.memberNames = memberNames;
+	}
+
+	// returns null if the definitions cannot be filtered on target names alone
+	public static UnpickTargets read(File definitions) throws IOException {
+		Set<String> memberNames = new HashSet<>();
+
+		try (BufferedReader reader = new BufferedReader(new FileReader(definitions))) {
+			String line = reader.readLine();
+			UnpickVersion unpickVersion = (line == null) ? null : UnpickVersion.parse(line.trim());
+
+			if (unpickVersion == null) {
+				return null;
+			}
+
+			while ((line = reader.readLine()) != null) {
+				int comment = line.indexOf('#');
+
+				if (comment >= 0) {
+					line = line.substring(0, comment);
+				}
+
+				// indented lines belong to the definition above them
+				if (line.isBlank() || Character.isWhitespace(line.charAt(0))) {
+					continue;
+				}
+
+				String[] args = line.trim().split("\\s+");
+
+				switch (args[0]) {
+					case "target_method", "target_field" -> {
+						if (args.length < 3) {
+							return null;
+						}
+
+						memberNames.add(args[2]);
+					}
+					case "constant", "flag" -> {
+						// v1 and v2 constants are only used through targets
+						if (unpickVersion != UnpickVersion.V1 && unpickVersion != UnpickVersion.V2) {
+							return null;
+						}
+					}
+					case "group" -> {
+						// groups without a name apply to literals anywhere in their scope
+						if (args.length < 3) {
+							return null;
+						}
+					}
+					default -> {
+						return null;
+					}
+				}
+			}
+		}
+
+		return new UnpickTargets(memberNames);
+	}
+
+	// scans the constant pool of the given class for the name of any target,
+	// without parsing the rest of the class
+	public boolean mayAffect(byte[] classBytes) {
+		try (DataInputStream is = new DataInputStream(new ByteArrayInputStream(classBytes))) {
+			if (is.readInt() != MAGIC) {
+				return true;
+			}
+
+			is.skipBytes(4); // minor and major version
+
+			int constantPoolCount = is.readUnsignedShort();
+
+			for (int i = 1; i < constantPoolCount; i++) {
+				int tag = is.readUnsignedByte();
+
+				switch (tag) {
+					case 1 -> { // utf8
+						if (memberNames.contains(is.readUTF())) {
+							return true;
+						}
+					}
+					case 7, 8, 16, 19, 20 -> is.skipBytes(2); // class, string, method type, module, package
+					case 15 -> is.skipBytes(3); // method handle
+					case 3, 4, 9, 10, 11, 12, 17, 18 -> is.skipBytes(4); // int, float, refs, name and type, dynamic
+					case 5, 6 -> { // long, double
+						is.skipBytes(8);
+						i++;
+					}
+					default -> {
+						return true;
+					}
+				}
+			}
+
+			return false;
+		} catch (IOException e) {
+			// let unpick itself report malformed classes
+			return true;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package net.ornithemc.keratin.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+
+// remembers the sha1 of files alongside their size and modification time, so
+// that files that have not changed since they were last verified need not be
+// read and hashed again - game jars in particular are large, and checking all
+// of them on every build adds up quickly
+public class ChecksumCache {
+
+	private final File directory;
+
+	public ChecksumCache(File directory) {
+		this.directory = directory;
+	}
+
+	public boolean matches(File file, String sha1) throws IOException {
+		return sha1.equalsIgnoreCase(getSha1(file));
+	}
+
+	public String getSha1(File file) throws IOException {
+		File sidecar = getSidecar(file);
+
+		long size = file.length();
+		long lastModified = file.lastModified();
+
+		if (sidecar.exists()) {
+			String[] record = Files.readString(sidecar.toPath(), StandardCharsets.UTF_8).trim().split(" ");
+
+			if (record.length == 3 && record[0].equals(Long.toString(size)) && record[1].equals(Long.toString(lastModified))) {
+				return record[2];
+			}
+		}
+
+		@SuppressWarnings("deprecation")
+		String sha1 = MoreFiles.asByteSource(file.toPath()).hash(Hashing.sha1()).toString();
+
+		// the file may have been modified while it was hashed
+		if (file.length() == size && file.lastModified() == lastModified) {
+			write(sidecar, size + " " + lastModified + " " + sha1);
+		}
+
+		return sha1;
+	}
+
+	private File getSidecar(File file) {
+		String key = Hashing.sha256().hashString(file.getAbsolutePath(), StandardCharsets.UTF_8).toString().substring(0, 16);
+		return new File(directory, "%s-%s.sha1".formatted(file.getName(), key));
+	}
+
+	private static void write(File sidecar, String record) throws IOException {
+		Files.createDirectories(sidecar.getParentFile().toPath());
+
+		// multiple downloads may verify the same file at once
+		File tmp = File.createTempFile(".tmp.", ".sha1", sidecar.getParentFile());
+
+		try {
+			Files.writeString(tmp.toPath(), record, StandardCharsets.UTF_8);
+			Files.move(tmp.toPath(), sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+}
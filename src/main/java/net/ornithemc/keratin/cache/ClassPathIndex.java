@@ -0,0 +1,347 @@
+package net.ornithemc.keratin.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+// keeps library jars in memory for the duration of a build, so that the many
+// work actions that need the same libraries on their class path (and most
+// Minecraft versions share most of their libraries) do not all have to read
+// and parse the same jars again
+public abstract class ClassPathIndex implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+
+	public static final String NAME = "keratinClassPathIndex";
+
+	private final Map<String, String> hashesByStamp = new ConcurrentHashMap<>();
+	private final Map<String, Library> librariesByHash = new ConcurrentHashMap<>();
+	private final Map<List<Library>, ClassLookup> lookupsByLibraries = new ConcurrentHashMap<>();
+
+	public Library getLibrary(File jar) throws IOException {
+		String stamp = jar.getAbsolutePath() + ":" + jar.length() + ":" + jar.lastModified();
+		String hash = hashesByStamp.get(stamp);
+
+		if (hash == null) {
+			hash = Files.asByteSource(jar).hash(Hashing.sha256()).toString();
+			hashesByStamp.put(stamp, hash);
+		}
+
+		try {
+			// identical jars in different locations share one index
+			return librariesByHash.computeIfAbsent(hash, key -> {
+				try {
+					return Library.read(jar);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	public List<Library> getLibraries(Collection<File> jars) throws IOException {
+		List<Library> libraries = new ArrayList<>();
+
+		for (File jar : jars) {
+			libraries.add(getLibrary(jar));
+		}
+
+		return libraries;
+	}
+
+	// a single index of all classes in the given libraries, so that a class is
+	// found with one lookup rather than by searching each library in turn - the
+	// first library on the class path that provides a class wins, and versions
+	// with the same libraries share the same index
+	public ClassLookup getClassLookup(Collection<File> jars) throws IOException {
+		List<Library> libraries = getLibraries(jars);
+		return lookupsByLibraries.computeIfAbsent(libraries, ClassLookup::new);
+	}
+
+	// find the libraries that provide classes referenced by the given jar, or
+	// that are part of the hierarchy of such classes - other libraries are not
+	// needed to resolve the class hierarchy of the jar
+	public List<File> findRequiredLibraries(File jar, Collection<File> jars) throws IOException {
+		List<File> files = new ArrayList<>(jars);
+		List<Library> libraries = getLibraries(files);
+		Map<String, List<Library>> librariesByClass = indexClasses(libraries);
+
+		Set<Library> required = new HashSet<>();
+
+		for (String className : findRequiredClasses(jar, librariesByClass)) {
+			required.addAll(librariesByClass.get(className));
+		}
+
+		List<File> requiredFiles = new ArrayList<>();
+
+		for (int i = 0; i < libraries.size(); i++) {
+			if (required.contains(libraries.get(i))) {
+				requiredFiles.add(files.get(i));
+			}
+		}
+
+		return requiredFiles;
+	}
+
+	// write the library classes needed to resolve the class hierarchy of the given
+	// jar into a jar of their own, from the bytes already in memory - for tools that
+	// only read their class path from files, so that they parse those classes only,
+	// rather than every class in the libraries that provide them
+	public void writeRequiredClasses(File jar, Collection<File> jars, File output) throws IOException {
+		List<Library> libraries = getLibraries(jars);
+		Map<String, List<Library>> librariesByClass = indexClasses(libraries);
+
+		try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(output))) {
+			// the classes are read again right after, so do not bother compressing them
+			zos.setLevel(Deflater.NO_COMPRESSION);
+
+			for (String className : findRequiredClasses(jar, librariesByClass)) {
+				// the first library on the class path that provides a class wins
+				Library library = librariesByClass.get(className).get(0);
+
+				zos.putNextEntry(new ZipEntry(className + ".class"));
+				zos.write(library.getClassBytes(className));
+				zos.closeEntry();
+			}
+		}
+	}
+
+	private static Map<String, List<Library>> indexClasses(List<Library> libraries) {
+		Map<String, List<Library>> librariesByClass = new HashMap<>();
+
+		for (Library library : libraries) {
+			for (String className : library.getClassNames()) {
+				librariesByClass.computeIfAbsent(className, key -> new ArrayList<>(1)).add(library);
+			}
+		}
+
+		return librariesByClass;
+	}
+
+	private static Set<String> findRequiredClasses(File jar, Map<String, List<Library>> librariesByClass) throws IOException {
+		Set<String> requiredClasses = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>();
+
+		try (ZipFile zip = new ZipFile(jar)) {
+			for (ZipEntry entry : Collections.list(zip.entries())) {
+				if (entry.getName().endsWith(".class")) {
+					try (InputStream is = zip.getInputStream(entry)) {
+						for (String name : findReferencedNames(is.readAllBytes())) {
+							if (librariesByClass.containsKey(name) && requiredClasses.add(name)) {
+								queue.add(name);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		while (!queue.isEmpty()) {
+			String className = queue.poll();
+
+			for (Library library : librariesByClass.get(className)) {
+				ClassInfo info = library.getClassInfo(className);
+
+				for (String superName : info.superNames()) {
+					if (librariesByClass.containsKey(superName) && requiredClasses.add(superName)) {
+						queue.add(superName);
+					}
+				}
+			}
+		}
+
+		return requiredClasses;
+	}
+
+	private static Set<String> findReferencedNames(byte[] bytes) {
+		ClassReader reader = new ClassReader(bytes);
+		Set<String> names = new HashSet<>();
+
+		// collect all utf8 constants, which covers class references
+		// as well as types used in descriptors and signatures
+		for (int i = 1; i < reader.getItemCount(); i++) {
+			int offset = reader.getItem(i);
+
+			if (offset > 0 && bytes[offset - 1] == 1 /* CONSTANT_Utf8 */) {
+				int length = reader.readUnsignedShort(offset);
+				String s = new String(bytes, offset + 2, length, StandardCharsets.ISO_8859_1);
+
+				names.add(s);
+
+				for (int start = s.indexOf('L'); start >= 0; start = s.indexOf('L', start + 1)) {
+					int end = s.indexOf(';', start);
+
+					if (end < 0) {
+						break;
+					}
+
+					int generic = s.indexOf('<', start);
+					names.add(s.substring(start + 1, (generic >= 0 && generic < end) ? generic : end));
+				}
+			}
+		}
+
+		return names;
+	}
+
+	@Override
+	public void close() {
+		hashesByStamp.clear();
+		librariesByHash.clear();
+		lookupsByLibraries.clear();
+	}
+
+	public static class ClassLookup {
+
+		private final Map<String, Library> librariesByClass;
+
+		private ClassLookup(List<Library> libraries) {
+			this.librariesByClass = new HashMap<>();
+
+			for (Library library : libraries) {
+				for (String className : library.getClassNames()) {
+					librariesByClass.putIfAbsent(className, library);
+				}
+			}
+		}
+
+		public Library findLibrary(String className) {
+			return librariesByClass.get(className);
+		}
+
+		public ClassReader getClassReader(String className) {
+			Library library = librariesByClass.get(className);
+			return (library == null) ? null : library.getClassReader(className);
+		}
+	}
+
+	public static class Library {
+
+		// class readers only parse the constant pool up front, and can be shared
+		// between threads, but a whole library's worth is still too much to keep
+		private static final int MAX_CACHED_CLASS_READERS = 1024;
+
+		private final File file;
+		private final Map<String, byte[]> classes;
+		private final Map<String, ClassInfo> classInfos;
+		private final Map<String, ClassReader> classReaders;
+
+		private Library(File file, Map<String, byte[]> classes) {
+			this.file = file;
+			this.classes = classes;
+			this.classInfos = new ConcurrentHashMap<>();
+			this.classReaders = Collections.synchronizedMap(new LinkedHashMap<String, ClassReader>(16, 0.75F, true) {
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, ClassReader> eldest) {
+					return size() > MAX_CACHED_CLASS_READERS;
+				}
+			});
+		}
+
+		private static Library read(File file) throws IOException {
+			Map<String, byte[]> classes = new HashMap<>();
+
+			try (ZipFile zip = new ZipFile(file)) {
+				for (ZipEntry entry : Collections.list(zip.entries())) {
+					String name = entry.getName();
+
+					if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+						try (InputStream is = zip.getInputStream(entry)) {
+							classes.put(name.substring(0, name.length() - ".class".length()), is.readAllBytes());
+						}
+					}
+				}
+			}
+
+			return new Library(file, classes);
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		public Set<String> getClassNames() {
+			return classes.keySet();
+		}
+
+		public byte[] getClassBytes(String className) {
+			return classes.get(className);
+		}
+
+		public ClassReader getClassReader(String className) {
+			byte[] bytes = classes.get(className);
+			return (bytes == null) ? null : classReaders.computeIfAbsent(className, key -> new ClassReader(bytes));
+		}
+
+		public ClassInfo getClassInfo(String className) {
+			byte[] bytes = classes.get(className);
+			return (bytes == null) ? null : classInfos.computeIfAbsent(className, key -> ClassInfo.read(bytes));
+		}
+	}
+
+	// the parts of a class that are needed to resolve its hierarchy:
+	// super classes, interfaces, and methods that can be inherited
+	public record ClassInfo(String name, String superName, List<String> interfaces, Set<String> methods) {
+
+		public List<String> superNames() {
+			List<String> superNames = new ArrayList<>(interfaces.size() + 1);
+
+			if (superName != null) {
+				superNames.add(superName);
+			}
+			superNames.addAll(interfaces);
+
+			return superNames;
+		}
+
+		private static ClassInfo read(byte[] bytes) {
+			ClassReader reader = new ClassReader(bytes);
+			Set<String> methods = new HashSet<>();
+
+			reader.accept(new ClassVisitor(Opcodes.ASM9) {
+
+				@Override
+				public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+					if ((access & Opcodes.ACC_PRIVATE) == 0 && (access & Opcodes.ACC_STATIC) == 0 && name.charAt(0) != '<') {
+						methods.add(name + descriptor);
+					}
+
+					return null;
+				}
+			}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+			return new ClassInfo(reader.getClassName(), reader.getSuperName(), List.of(reader.getInterfaces()), methods);
+		}
+	}
+}
@@ -0,0 +1,357 @@
+package net.ornithemc.keratin.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.Remapper;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+// a hash of every top level class in a jar, along with its nested classes, so
+// that decompiled sources can be reused for classes that did not change - since
+// the jar is already mapped, renaming a class or member also changes the hash of
+// every class that references it - the decompiled source of a class also depends
+// on things outside its own bytes, so the hash also covers:
+// - the classes it extends, directly or not, for inherited generics, overrides
+//   and bridge methods
+// - the signatures of the classes it references, for generic types that the
+//   decompiler infers from the members it calls or reads
+public class DecompiledSourceIndex {
+
+	private final String decompiler;
+	private final Map<String, String> hashes;
+
+	private DecompiledSourceIndex(String decompiler, Map<String, String> hashes) {
+		this.decompiler = decompiler;
+		this.hashes = hashes;
+	}
+
+	public static DecompiledSourceIndex create(String decompiler, File jar) throws IOException {
+		Map<String, String> entryHashes = new TreeMap<>();
+		Map<String, String> entrySignatures = new TreeMap<>();
+		Map<String, List<String>> superNames = new HashMap<>();
+		Map<String, Set<String>> referencedNames = new HashMap<>();
+
+		try (ZipFile zip = new ZipFile(jar)) {
+			for (ZipEntry entry : Collections.list(zip.entries())) {
+				String name = entry.getName();
+
+				if (!name.endsWith(".class")) {
+					continue;
+				}
+
+				byte[] bytes;
+
+				try (InputStream is = zip.getInputStream(entry)) {
+					bytes = is.readAllBytes();
+				}
+
+				Set<String> references = new HashSet<>();
+				ClassNode node = new ClassNode();
+
+				// the remapper does not rename anything, it is only used to
+				// find every class named in the descriptors, signatures and code
+				new ClassReader(bytes).accept(new ClassRemapper(node, new Remapper() {
+
+					@Override
+					public String map(String internalName) {
+						references.add(internalName);
+						return internalName;
+					}
+				}), 0);
+
+				List<String> supers = new ArrayList<>();
+
+				if (node.superName != null) {
+					supers.add(node.superName);
+				}
+				supers.addAll(node.interfaces);
+
+				String className = name.substring(0, name.length() - ".class".length());
+
+				entryHashes.put(className, Hashing.sha256().hashBytes(bytes).toString());
+				entrySignatures.put(className, getSignature(node));
+				superNames.put(className, supers);
+				referencedNames.put(className, references);
+			}
+		}
+
+		Set<String> classNames = entryHashes.keySet();
+		Map<String, Hasher> ownHashers = new TreeMap<>();
+		Map<String, Hasher> signatureHashers = new TreeMap<>();
+
+		// entries are visited in order, so nested classes are always
+		// hashed in the same order too
+		for (Map.Entry<String, String> e : entryHashes.entrySet()) {
+			String topLevelClass = getTopLevelClass(e.getKey(), classNames);
+
+			ownHashers.computeIfAbsent(topLevelClass, key -> Hashing.sha256().newHasher())
+				.putString(e.getKey(), StandardCharsets.UTF_8)
+				.putString(e.getValue(), StandardCharsets.UTF_8);
+			signatureHashers.computeIfAbsent(topLevelClass, key -> Hashing.sha256().newHasher())
+				.putString(entrySignatures.get(e.getKey()), StandardCharsets.UTF_8);
+		}
+
+		Map<String, String> ownHashes = new HashMap<>();
+		Map<String, String> signatureHashes = new HashMap<>();
+
+		for (Map.Entry<String, Hasher> e : ownHashers.entrySet()) {
+			ownHashes.put(e.getKey(), e.getValue().hash().toString());
+		}
+		for (Map.Entry<String, Hasher> e : signatureHashers.entrySet()) {
+			signatureHashes.put(e.getKey(), e.getValue().hash().toString());
+		}
+
+		Map<String, Set<String>> superClasses = getTopLevelClasses(superNames, classNames);
+		Map<String, Set<String>> referencedClasses = getTopLevelClasses(referencedNames, classNames);
+
+		Map<String, String> hashes = new TreeMap<>();
+
+		for (Map.Entry<String, String> e : ownHashes.entrySet()) {
+			Hasher hasher = Hashing.sha256().newHasher();
+			hasher.putString(e.getValue(), StandardCharsets.UTF_8);
+
+			for (String superClass : sorted(getAllSuperClasses(e.getKey(), superClasses))) {
+				hasher.putString(ownHashes.get(superClass), StandardCharsets.UTF_8);
+			}
+			for (String referencedClass : sorted(referencedClasses.get(e.getKey()))) {
+				hasher.putString(referencedClass, StandardCharsets.UTF_8);
+				hasher.putString(signatureHashes.get(referencedClass), StandardCharsets.UTF_8);
+			}
+
+			hashes.put(e.getKey(), hasher.hash().toString());
+		}
+
+		return new DecompiledSourceIndex(decompiler, hashes);
+	}
+
+	// everything about a class that other classes can see, but none of its code
+	private static String getSignature(ClassNode node) {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(node.access).append(' ').append(node.name).append(' ').append(node.signature).append(' ').append(node.superName).append(' ').append(node.interfaces).append('\n');
+
+		for (FieldNode field : node.fields) {
+			sb.append(field.access).append(' ').append(field.name).append(' ').append(field.desc).append(' ').append(field.signature).append(' ').append(field.value).append('\n');
+		}
+		for (MethodNode method : node.methods) {
+			sb.append(method.access).append(' ').append(method.name).append(' ').append(method.desc).append(' ').append(method.signature).append(' ').append(method.exceptions).append('\n');
+		}
+
+		return sb.toString();
+	}
+
+	// maps the given classes to the top level classes in the jar that they name,
+	// leaving out the class itself and anything from outside the jar
+	private static Map<String, Set<String>> getTopLevelClasses(Map<String, ? extends Collection<String>> names, Set<String> classNames) {
+		Map<String, Set<String>> topLevelClasses = new HashMap<>();
+
+		for (Map.Entry<String, ? extends Collection<String>> e : names.entrySet()) {
+			String topLevelClass = getTopLevelClass(e.getKey(), classNames);
+
+			for (String name : e.getValue()) {
+				if (classNames.contains(name)) {
+					String otherClass = getTopLevelClass(name, classNames);
+
+					if (!otherClass.equals(topLevelClass)) {
+						topLevelClasses.computeIfAbsent(topLevelClass, key -> new HashSet<>()).add(otherClass);
+					}
+				}
+			}
+		}
+
+		return topLevelClasses;
+	}
+
+	private static Set<String> getAllSuperClasses(String className, Map<String, Set<String>> superClasses) {
+		Set<String> allSuperClasses = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>(superClasses.getOrDefault(className, Set.of()));
+
+		while (!queue.isEmpty()) {
+			String superClass = queue.poll();
+
+			if (!superClass.equals(className) && allSuperClasses.add(superClass)) {
+				queue.addAll(superClasses.getOrDefault(superClass, Set.of()));
+			}
+		}
+
+		return allSuperClasses;
+	}
+
+	public static DecompiledSourceIndex read(File file) throws IOException {
+		if (!file.exists()) {
+			return null;
+		}
+
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+
+		if (lines.isEmpty()) {
+			return null;
+		}
+
+		Map<String, String> hashes = new TreeMap<>();
+
+		for (String line : lines.subList(1, lines.size())) {
+			int i = line.lastIndexOf(' ');
+
+			if (i < 0) {
+				return null;
+			}
+
+			hashes.put(line.substring(0, i), line.substring(i + 1));
+		}
+
+		return new DecompiledSourceIndex(lines.get(0), hashes);
+	}
+
+	public void write(File file) throws IOException {
+		StringBuilder sb = new StringBuilder(decompiler).append('\n');
+
+		for (Map.Entry<String, String> e : hashes.entrySet()) {
+			sb.append(e.getKey()).append(' ').append(e.getValue()).append('\n');
+		}
+
+		File tmp = File.createTempFile(".tmp.", ".index", file.getParentFile());
+
+		try {
+			Files.writeString(tmp.toPath(), sb, StandardCharsets.UTF_8);
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+
+	public int size() {
+		return hashes.size();
+	}
+
+	public Set<String> getClassNames() {
+		return Collections.unmodifiableSet(hashes.keySet());
+	}
+
+	// split the given top level classes into at most the given number of shards,
+	// keeping packages together so that each shard resolves as much as possible
+	// on its own - packages are assigned largest first to the smallest shard
+	public List<Set<String>> split(Set<String> classNames, int maxShards) {
+		Map<String, Set<String>> packages = new TreeMap<>();
+
+		for (String className : classNames) {
+			int i = className.lastIndexOf('/');
+			String packageName = (i < 0) ? "" : className.substring(0, i);
+
+			packages.computeIfAbsent(packageName, key -> new HashSet<>()).add(className);
+		}
+
+		List<Set<String>> packageClasses = new ArrayList<>(packages.values());
+		packageClasses.sort((p1, p2) -> Integer.compare(p2.size(), p1.size()));
+
+		List<Set<String>> shards = new ArrayList<>();
+
+		for (int i = 0; i < Math.min(maxShards, packageClasses.size()); i++) {
+			shards.add(new HashSet<>());
+		}
+		for (Set<String> classes : packageClasses) {
+			Set<String> smallest = shards.get(0);
+
+			for (Set<String> shard : shards) {
+				if (shard.size() < smallest.size()) {
+					smallest = shard;
+				}
+			}
+
+			smallest.addAll(classes);
+		}
+
+		return shards;
+	}
+
+	public boolean isCompatible(DecompiledSourceIndex previous) {
+		return previous != null && decompiler.equals(previous.decompiler);
+	}
+
+	// the top level classes whose hash changed, or whose source is missing
+	public Set<String> findChanged(DecompiledSourceIndex previous, File sourceDirectory) {
+		Set<String> changed = new HashSet<>();
+
+		for (Map.Entry<String, String> e : hashes.entrySet()) {
+			if (!e.getValue().equals(previous.hashes.get(e.getKey())) || !getSourceFile(sourceDirectory, e.getKey()).exists()) {
+				changed.add(e.getKey());
+			}
+		}
+
+		return changed;
+	}
+
+	public Set<String> findRemoved(DecompiledSourceIndex previous) {
+		Set<String> removed = new HashSet<>(previous.hashes.keySet());
+		removed.removeAll(hashes.keySet());
+
+		return removed;
+	}
+
+	// the top level class that the given jar entry belongs to, if it is a class
+	public String getTopLevelClass(String entryName) {
+		if (!entryName.endsWith(".class")) {
+			return null;
+		}
+
+		String className = entryName.substring(0, entryName.length() - ".class".length());
+
+		return getTopLevelClass(className, hashes.keySet());
+	}
+
+	public static File getSourceFile(File sourceDirectory, String className) {
+		return new File(sourceDirectory, className + ".java");
+	}
+
+	private static String getTopLevelClass(String className, Set<String> classNames) {
+		int i = className.indexOf('$', className.lastIndexOf('/') + 1);
+
+		// a dollar sign does not always mean a nested class
+		while (i > 0) {
+			String outerClass = className.substring(0, i);
+
+			if (classNames.contains(outerClass)) {
+				return outerClass;
+			}
+
+			i = className.indexOf('$', i + 1);
+		}
+
+		return className;
+	}
+
+	private static List<String> sorted(Set<String> names) {
+		if (names == null) {
+			return List.of();
+		}
+
+		List<String> list = new ArrayList<>(names);
+		Collections.sort(list);
+
+		return list;
+	}
+}
@@ -0,0 +1,193 @@
+package net.ornithemc.keratin.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.gradle.api.logging.Logging;
+
+import com.google.common.hash.Hashing;
+
+// keeps copies of remote metadata (maven-metadata.xml, meta endpoints, sha1
+// files) on disk, and revalidates them with conditional requests rather than
+// downloading them in full on every build - in offline mode, only the cached
+// copies are used
+public class HttpCache {
+
+	private static final int MAX_CONCURRENT_REQUESTS = 8;
+	private static final int TIMEOUT = 30_000;
+
+	private final File directory;
+	private final boolean offline;
+
+	private final Map<String, Object> locks;
+
+	public HttpCache(File directory, boolean offline) {
+		this.directory = directory;
+		this.offline = offline;
+
+		this.locks = new ConcurrentHashMap<>();
+	}
+
+	public boolean isOffline() {
+		return offline;
+	}
+
+	// reads the resource at the given url, revalidating the cached copy if there is one
+	public String readString(String url) throws IOException {
+		return read(url, false);
+	}
+
+	// reads the resource at the given url, which is assumed never to change once
+	// published (such as the sha1 file of a released artifact), so a cached copy
+	// is used as is
+	public String readImmutableString(String url) throws IOException {
+		return read(url, true);
+	}
+
+	// fetches the given immutable resources in parallel, so that later reads are
+	// served from disk - failures are left for those reads to report
+	public void prefetch(Collection<String> urls) {
+		if (offline) {
+			return;
+		}
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS)) {
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+			for (String url : urls) {
+				futures.add(CompletableFuture.runAsync(() -> {
+					try {
+						readImmutableString(url);
+					} catch (IOException e) {
+						Logging.getLogger(HttpCache.class).debug("failed to prefetch " + url + ", it will be requested again when it is read", e);
+					}
+				}, executor));
+			}
+
+			CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+		}
+	}
+
+	private String read(String url, boolean immutable) throws IOException {
+		String key = Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString();
+
+		File body = new File(directory, key);
+		File headers = new File(directory, key + ".headers");
+
+		synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+			if (body.exists() && (immutable || offline)) {
+				return Files.readString(body.toPath(), StandardCharsets.UTF_8);
+			}
+			if (offline) {
+				throw new IOException("no cached copy of " + url + " is available in offline mode");
+			}
+
+			try {
+				return fetch(url, body, headers);
+			} catch (IOException e) {
+				// if the cached copy exists, just use it despite the request failing
+				// it is likely still valid anyway
+				if (body.exists()) {
+					return Files.readString(body.toPath(), StandardCharsets.UTF_8);
+				}
+
+				throw e;
+			}
+		}
+	}
+
+	private String fetch(String url, File body, File headers) throws IOException {
+		URLConnection connection;
+
+		try {
+			connection = new URI(url).toURL().openConnection();
+		} catch (URISyntaxException e) {
+			throw new IOException("invalid url " + url, e);
+		}
+
+		connection.setConnectTimeout(TIMEOUT);
+		connection.setReadTimeout(TIMEOUT);
+
+		if (connection instanceof HttpURLConnection http) {
+			String etag = null;
+			String lastModified = null;
+
+			if (body.exists() && headers.exists()) {
+				for (String line : Files.readAllLines(headers.toPath(), StandardCharsets.UTF_8)) {
+					if (line.startsWith("ETag: ")) {
+						etag = line.substring("ETag: ".length());
+					} else if (line.startsWith("Last-Modified: ")) {
+						lastModified = line.substring("Last-Modified: ".length());
+					}
+				}
+			}
+
+			if (etag != null) {
+				http.setRequestProperty("If-None-Match", etag);
+			}
+			if (lastModified != null) {
+				http.setRequestProperty("If-Modified-Since", lastModified);
+			}
+
+			int status = http.getResponseCode();
+
+			if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				http.disconnect();
+				return Files.readString(body.toPath(), StandardCharsets.UTF_8);
+			}
+			if (status != HttpURLConnection.HTTP_OK) {
+				http.disconnect();
+				throw new IOException("request to " + url + " failed with status " + status);
+			}
+		}
+
+		byte[] bytes;
+
+		try (InputStream is = connection.getInputStream()) {
+			bytes = is.readAllBytes();
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		if (connection.getHeaderField("ETag") != null) {
+			sb.append("ETag: ").append(connection.getHeaderField("ETag")).append('\n');
+		}
+		if (connection.getHeaderField("Last-Modified") != null) {
+			sb.append("Last-Modified: ").append(connection.getHeaderField("Last-Modified")).append('\n');
+		}
+
+		write(body, bytes);
+		write(headers, sb.toString().getBytes(StandardCharsets.UTF_8));
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void write(File file, byte[] bytes) throws IOException {
+		Files.createDirectories(file.getParentFile().toPath());
+
+		File tmp = File.createTempFile(".tmp.", ".http", file.getParentFile());
+
+		try {
+			Files.write(tmp.toPath(), bytes);
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+}
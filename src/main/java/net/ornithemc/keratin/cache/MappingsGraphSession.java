@@ -0,0 +1,607 @@
+package net.ornithemc.keratin.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+
+import net.ornithemc.mappingutils.MappingUtils;
+import net.ornithemc.mappingutils.PropagationOptions;
+import net.ornithemc.mappingutils.io.Format;
+import net.ornithemc.mappingutils.io.MappingNamespace;
+import net.ornithemc.mappingutils.io.MappingValidator;
+import net.ornithemc.mappingutils.io.Mappings;
+import net.ornithemc.mappingutils.io.diff.MappingsDiff;
+import net.ornithemc.mappingutils.io.diff.graph.VersionGraph;
+
+// keeps parsed mappings graphs in memory for the duration of a build, so that
+// tasks that load from, save into or extend the graph do not each have to
+// parse every mappings and diff file again
+public abstract class MappingsGraphSession implements BuildService<MappingsGraphSession.Parameters>, AutoCloseable {
+
+	public static final String NAME = "keratinMappingsGraphSession";
+
+	private static final Format GRAPH_FORMAT = Format.TINY_V2;
+	// the most diffs that are replayed before a checkpoint is written
+	private static final int CHECKPOINT_INTERVAL = 16;
+
+	public interface Parameters extends BuildServiceParameters {
+
+		// optional, without it no checkpoints are kept
+		Property<File> getCheckpointsDirectory();
+
+		Property<File> getDummyMappingsDirectory();
+
+	}
+
+	private final Map<File, Session> sessions = new HashMap<>();
+	private final Map<String, String> hashesByStamp = new ConcurrentHashMap<>();
+	private final Map<String, Object> dummyMappingsLocks = new ConcurrentHashMap<>();
+	private final Map<File, Mappings> parsedDummyMappings = new ConcurrentHashMap<>();
+
+	public synchronized VersionGraph getGraph(File graphDir) throws IOException {
+		Session session = getSession(graphDir);
+
+		if (session.graph == null) {
+			session.graph = VersionGraph.of(GRAPH_FORMAT, graphDir.toPath());
+			session.versions.clear();
+			session.graph.walk(v -> session.versions.add(v.toString()), p -> { });
+		}
+
+		return session.graph;
+	}
+
+	public synchronized boolean hasVersion(File graphDir, String version) throws IOException {
+		Session session = getSession(graphDir);
+
+		if (session.graph == null && session.versions.isEmpty()) {
+			getGraph(graphDir);
+		}
+
+		return session.versions.contains(version);
+	}
+
+	// dummy mappings only depend on the jar and the class name pattern, and
+	// are generated once and shared by every graph operation that needs them
+	public File getDummyMappings(File jar, String classNamePattern) throws IOException {
+		String key = Hashing.sha256().newHasher()
+			.putString(getHash(jar.toPath()), StandardCharsets.UTF_8)
+			.putString(classNamePattern, StandardCharsets.UTF_8)
+			.hash().toString().substring(0, 16);
+
+		File dir = getParameters().getDummyMappingsDirectory().get();
+		File dummyMappings = new File(dir, "%s.tiny".formatted(key));
+
+		synchronized (dummyMappingsLocks.computeIfAbsent(key, k -> new Object())) {
+			if (!dummyMappings.exists()) {
+				File tmp = new File(dir, ".tmp." + dummyMappings.getName());
+
+				dir.mkdirs();
+
+				MappingUtils.generateDummyMappings(GRAPH_FORMAT, MappingNamespace.INTERMEDIARY, MappingNamespace.NAMED, classNamePattern, jar.toPath(), tmp.toPath());
+				Files.move(tmp.toPath(), dummyMappings.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+
+		return dummyMappings;
+	}
+
+	// dummy mappings files are named after their contents, so once parsed they
+	// can be reused for as long as the build runs - the returned mappings are
+	// shared, and should not be modified
+	public Mappings readDummyMappings(File dummyMappings) throws IOException {
+		try {
+			return parsedDummyMappings.computeIfAbsent(dummyMappings.getAbsoluteFile(), file -> {
+				try {
+					return GRAPH_FORMAT.readMappings(file.toPath());
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	// separating the mappings of a version replays every diff on the path from
+	// the root, so the result is kept as a checkpoint that later separations of
+	// the same version can read directly, for as long as those diffs do not change -
+	// separations of other versions start from the nearest checkpoint above them
+	public Mappings separateMappings(File graphDir, String version) throws IOException {
+		return separateMappings(graphDir, version, true);
+	}
+
+	// writes the separated mappings of a version to the given file in the graph format -
+	// if there is a valid checkpoint, it is copied as is and nothing needs to be parsed
+	public void writeSeparatedMappings(File graphDir, String version, File output) throws IOException {
+		File checkpoint = getCheckpointFile(graphDir, version);
+		String key = (checkpoint == null) ? null : getCheckpointKey(graphDir, GraphLayout.of(graphDir), version);
+
+		if (key == null || !isCheckpointValid(checkpoint, key)) {
+			Mappings mappings = separateMappings(graphDir, version, true);
+
+			if (key == null || !isCheckpointValid(checkpoint, key)) {
+				GRAPH_FORMAT.writeMappings(output.toPath(), mappings);
+				return;
+			}
+		}
+
+		Files.copy(checkpoint.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	// writes the separated mappings of a version to the given file in the given format,
+	// passed through the given validator - the output is cached beside the checkpoint
+	// under the given name, and copied as is for as long as the checkpoint is valid
+	public void writeSeparatedMappings(File graphDir, String version, File output, Format format, MappingValidator validator, String name) throws IOException {
+		File checkpoint = getCheckpointFile(graphDir, version);
+		File cached = (checkpoint == null) ? null : new File(checkpoint.getParentFile(), "%s.%s.%s".formatted(version, name, format.name().toLowerCase(Locale.ROOT)));
+		String key = (checkpoint == null) ? null : getCheckpointKey(graphDir, GraphLayout.of(graphDir), version);
+
+		if (key == null || !isCheckpointValid(cached, key)) {
+			Mappings mappings = separateMappings(graphDir, version, true);
+
+			if (validator != null) {
+				mappings.setValidator(validator);
+			}
+
+			if (key == null) {
+				format.writeMappings(output.toPath(), mappings);
+				return;
+			}
+
+			File keyFile = new File(cached.getPath() + ".key");
+			File tmp = new File(cached.getParentFile(), ".tmp." + Thread.currentThread().threadId() + "." + cached.getName());
+
+			Files.deleteIfExists(keyFile.toPath());
+
+			// some formats write a directory rather than a single file
+			if (tmp.exists()) {
+				FileUtils.forceDelete(tmp);
+			}
+			format.writeMappings(tmp.toPath(), mappings);
+			if (cached.exists()) {
+				FileUtils.forceDelete(cached);
+			}
+			Files.move(tmp.toPath(), cached.toPath());
+			Files.writeString(keyFile.toPath(), key);
+		}
+
+		if (cached.isDirectory()) {
+			FileUtils.copyDirectory(cached, output);
+		} else {
+			Files.copy(cached.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private Mappings separateMappings(File graphDir, String version, boolean writeCheckpoint) throws IOException {
+		if (getParameters().getCheckpointsDirectory().getOrNull() == null) {
+			return separateFromRoot(graphDir, version);
+		}
+
+		GraphLayout layout = GraphLayout.of(graphDir);
+		String key = getCheckpointKey(graphDir, layout, version);
+
+		if (key == null) {
+			return separateFromRoot(graphDir, version);
+		}
+
+		Mappings mappings = readCheckpoint(getCheckpointFile(graphDir, version), key);
+
+		if (mappings != null) {
+			return mappings;
+		}
+
+		// walk up from the version to the nearest ancestor that has a checkpoint, or
+		// to the root - a version with more than one parent is separated through the
+		// whole graph, since its mappings depend on each of the paths that lead to it
+		List<String> path = new ArrayList<>();
+		String start = version;
+		File startMappings = null;
+
+		while (true) {
+			GraphFile root = layout.files().get("%s.tiny".formatted(start));
+
+			if (root != null) {
+				startMappings = root.path().toFile();
+				break;
+			}
+			if (!start.equals(version)) {
+				File checkpoint = getCheckpointFile(graphDir, start);
+
+				if (isCheckpointValid(checkpoint, getCheckpointKey(graphDir, layout, start))) {
+					startMappings = checkpoint;
+					break;
+				}
+			}
+
+			List<String> parents = layout.parents().getOrDefault(start, List.of());
+
+			if (parents.size() != 1) {
+				break;
+			}
+
+			path.add(start);
+			start = parents.get(0);
+		}
+
+		if (startMappings == null) {
+			mappings = separateFromRoot(graphDir, start);
+
+			if (path.isEmpty()) {
+				if (writeCheckpoint) {
+					writeCheckpoint(getCheckpointFile(graphDir, start), key, mappings);
+				}
+
+				return mappings;
+			}
+
+			startMappings = getCheckpointFile(graphDir, start);
+			writeCheckpoint(startMappings, getCheckpointKey(graphDir, layout, start), mappings);
+		} else if (path.isEmpty()) {
+			// the version is the root of the graph
+			return GRAPH_FORMAT.readMappings(startMappings.toPath());
+		}
+
+		Collections.reverse(path);
+
+		// the diffs are replayed in segments that end every few versions and at
+		// branch points, each of which leaves a checkpoint for later separations
+		int segmentStart = 0;
+
+		for (int i = 0; i < path.size(); i++) {
+			String v = path.get(i);
+			boolean last = (i == path.size() - 1);
+
+			if (!last && (i + 1 - segmentStart) < CHECKPOINT_INTERVAL && layout.children().getOrDefault(v, 0) < 2) {
+				continue;
+			}
+
+			mappings = replayDiffs(graphDir, layout, start, startMappings, path.subList(segmentStart, i + 1));
+
+			if (!last || writeCheckpoint) {
+				startMappings = getCheckpointFile(graphDir, v);
+				writeCheckpoint(startMappings, getCheckpointKey(graphDir, layout, v), mappings);
+			}
+
+			start = v;
+			segmentStart = i + 1;
+		}
+
+		return mappings;
+	}
+
+	private Mappings separateFromRoot(File graphDir, String version) throws IOException {
+		// the graph is shared between tasks and work actions,
+		// so it should only be read and written through this session
+		synchronized (this) {
+			return MappingUtils.separateMappings(getGraph(graphDir), version);
+		}
+	}
+
+	// separates the last of the given versions from a small graph made of the mappings
+	// of their common ancestor as its root, and the diffs between each of them
+	private Mappings replayDiffs(File graphDir, GraphLayout layout, String start, File startMappings, List<String> versions) throws IOException {
+		File tmpGraphDir = new File(getCheckpointsDirectory(graphDir), ".tmp.%d.%s".formatted(Thread.currentThread().threadId(), versions.get(versions.size() - 1)));
+
+		if (tmpGraphDir.exists()) {
+			FileUtils.forceDelete(tmpGraphDir);
+		}
+		tmpGraphDir.mkdirs();
+
+		try {
+			Files.copy(startMappings.toPath(), new File(tmpGraphDir, "%s.tiny".formatted(start)).toPath());
+
+			String parent = start;
+
+			for (String version : versions) {
+				String diff = "%s#%s.tinydiff".formatted(parent, version);
+				Files.copy(layout.files().get(diff).path(), new File(tmpGraphDir, diff).toPath());
+
+				parent = version;
+			}
+
+			return MappingUtils.separateMappings(VersionGraph.of(GRAPH_FORMAT, tmpGraphDir.toPath()), parent);
+		} finally {
+			FileUtils.forceDelete(tmpGraphDir);
+		}
+	}
+
+	// the returned mappings are shared, and should not be modified
+	public synchronized Mappings getSeparatedMappings(File graphDir, String version) throws IOException {
+		Session session = getSession(graphDir);
+		Mappings mappings = session.separatedMappings.get(version);
+
+		if (mappings == null) {
+			mappings = separateMappings(graphDir, version, false);
+			session.separatedMappings.put(version, mappings);
+		}
+
+		return mappings;
+	}
+
+	public synchronized void insertMappings(File graphDir, PropagationOptions options, MappingsDiff changes, String version) throws IOException {
+		VersionGraph graph = getGraph(graphDir);
+		Session session = sessions.get(graphDir.getAbsoluteFile());
+
+		MappingUtils.insertMappings(options, graph, changes, version);
+
+		// the graph in memory is up to date with the files it wrote,
+		// but insertions can propagate to any version
+		session.separatedMappings.clear();
+		session.stamp = stamp(graphDir);
+
+		// the version inserted into is likely to be loaded again soon - its
+		// checkpoint is rebuilt from the nearest ancestor checkpoint that the
+		// insertion did not invalidate, rather than from the root
+		if (getParameters().getCheckpointsDirectory().getOrNull() != null) {
+			separateMappings(graphDir, version, true);
+		}
+	}
+
+	// adds a new version to the graph by writing the diffs from its parents -
+	// existing versions are unaffected, so only the graph itself needs parsing again
+	public synchronized void extend(File graphDir, String version, Mappings mappings, Map<File, MappingsDiff> diffs) throws IOException {
+		for (Map.Entry<File, MappingsDiff> e : diffs.entrySet()) {
+			GRAPH_FORMAT.writeDiff(e.getKey().toPath(), e.getValue());
+		}
+
+		Session session = sessions.get(graphDir.getAbsoluteFile());
+
+		if (session == null) {
+			return;
+		}
+
+		session.graph = null;
+		session.versions.add(version);
+		session.separatedMappings.put(version, mappings);
+		session.stamp = stamp(graphDir);
+	}
+
+	public synchronized void invalidate(File graphDir) {
+		sessions.remove(graphDir.getAbsoluteFile());
+	}
+
+	private Session getSession(File graphDir) throws IOException {
+		File key = graphDir.getAbsoluteFile();
+		String stamp = stamp(key);
+		Session session = sessions.get(key);
+
+		// the graph was changed by something other than this session
+		if (session == null || !session.stamp.equals(stamp)) {
+			sessions.put(key, session = new Session(stamp));
+		}
+
+		return session;
+	}
+
+	// each graph keeps its checkpoints in a directory of its own
+	private File getCheckpointsDirectory(File graphDir) {
+		File dir = getParameters().getCheckpointsDirectory().getOrNull();
+
+		if (dir == null) {
+			return null;
+		}
+
+		String graphKey = Hashing.sha256().hashString(graphDir.getAbsolutePath(), StandardCharsets.UTF_8).toString().substring(0, 16);
+
+		return new File(dir, graphKey);
+	}
+
+	private File getCheckpointFile(File graphDir, String version) {
+		File dir = getCheckpointsDirectory(graphDir);
+		return (dir == null) ? null : new File(dir, "%s.tiny".formatted(version));
+	}
+
+	// checkpoints are keyed by the contents of the root mappings and all diffs
+	// on the paths to the version - the graph does not need to be parsed for that
+	private String getCheckpointKey(File graphDir, GraphLayout layout, String version) throws IOException {
+		Map<String, GraphFile> files = layout.files();
+		Map<String, List<String>> parents = layout.parents();
+
+		Map<String, GraphFile> pathFiles = new TreeMap<>();
+		Set<String> visited = new HashSet<>();
+		Deque<String> queue = new ArrayDeque<>();
+
+		queue.add(version);
+		visited.add(version);
+
+		while (!queue.isEmpty()) {
+			String v = queue.poll();
+			GraphFile root = files.get("%s.tiny".formatted(v));
+
+			if (root != null) {
+				pathFiles.put(root.name(), root);
+			}
+
+			for (String parent : parents.getOrDefault(v, List.of())) {
+				GraphFile diff = files.get("%s#%s.tinydiff".formatted(parent, v));
+				pathFiles.put(diff.name(), diff);
+
+				if (visited.add(parent)) {
+					queue.add(parent);
+				}
+			}
+		}
+
+		if (pathFiles.isEmpty()) {
+			return null;
+		}
+
+		Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putString(graphDir.getAbsolutePath(), StandardCharsets.UTF_8);
+
+		for (GraphFile file : pathFiles.values()) {
+			hasher.putString(file.name(), StandardCharsets.UTF_8);
+			hasher.putString(getHash(file.path(), file.stamp()), StandardCharsets.UTF_8);
+		}
+
+		return hasher.hash().toString();
+	}
+
+	private String getHash(Path path) throws IOException {
+		BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+		return getHash(path, stamp(path, attrs));
+	}
+
+	private String getHash(Path path, String stamp) throws IOException {
+		try {
+			return hashesByStamp.computeIfAbsent(stamp, key -> {
+				try {
+					return MoreFiles.asByteSource(path).hash(Hashing.sha256()).toString();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static boolean isCheckpointValid(File checkpoint, String key) throws IOException {
+		File keyFile = new File(checkpoint.getPath() + ".key");
+		return checkpoint.exists() && keyFile.exists() && key.equals(Files.readString(keyFile.toPath()));
+	}
+
+	private static Mappings readCheckpoint(File checkpoint, String key) throws IOException {
+		return isCheckpointValid(checkpoint, key) ? GRAPH_FORMAT.readMappings(checkpoint.toPath()) : null;
+	}
+
+	private static void writeCheckpoint(File checkpoint, String key, Mappings mappings) throws IOException {
+		File keyFile = new File(checkpoint.getPath() + ".key");
+		File tmp = new File(checkpoint.getParentFile(), ".tmp." + Thread.currentThread().threadId() + "." + checkpoint.getName());
+
+		checkpoint.getParentFile().mkdirs();
+
+		// the key goes first, so that a failed write cannot leave
+		// behind a checkpoint that looks valid
+		Files.deleteIfExists(keyFile.toPath());
+
+		GRAPH_FORMAT.writeMappings(tmp.toPath(), mappings);
+		Files.move(tmp.toPath(), checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Files.writeString(keyFile.toPath(), key);
+	}
+
+	private static String stamp(File graphDir) throws IOException {
+		Map<String, String> stamps = new TreeMap<>();
+
+		for (GraphFile file : listGraphFiles(graphDir).values()) {
+			stamps.put(file.name(), file.stamp());
+		}
+
+		return stamps.toString();
+	}
+
+	private static Map<String, GraphFile> listGraphFiles(File graphDir) throws IOException {
+		Map<String, GraphFile> files = new HashMap<>();
+
+		if (graphDir.exists()) {
+			Path root = graphDir.toPath();
+
+			Files.walkFileTree(root, new SimpleFileVisitor<>() {
+
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					// temporary directories of graph operations
+					return (!dir.equals(root) && dir.getFileName().toString().startsWith("."))
+						? FileVisitResult.SKIP_SUBTREE
+						: FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					String name = file.getFileName().toString();
+					files.put(name, new GraphFile(name, file, stamp(file, attrs)));
+
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		}
+
+		return files;
+	}
+
+	private static String stamp(Path file, BasicFileAttributes attrs) {
+		return file.toAbsolutePath() + ":" + attrs.size() + ":" + attrs.lastModifiedTime().toMillis();
+	}
+
+	@Override
+	public synchronized void close() {
+		sessions.clear();
+		hashesByStamp.clear();
+		parsedDummyMappings.clear();
+	}
+
+	private record GraphFile(String name, Path path, String stamp) {
+	}
+
+	// the files of a graph and the edges between its versions, as told by the
+	// names of the diff files
+	private record GraphLayout(Map<String, GraphFile> files, Map<String, List<String>> parents, Map<String, Integer> children) {
+
+		private static GraphLayout of(File graphDir) throws IOException {
+			Map<String, GraphFile> files = listGraphFiles(graphDir);
+			Map<String, List<String>> parents = new HashMap<>();
+			Map<String, Integer> children = new HashMap<>();
+
+			for (String name : files.keySet()) {
+				if (name.endsWith(".tinydiff")) {
+					String diff = name.substring(0, name.length() - ".tinydiff".length());
+					int separator = diff.indexOf('#');
+
+					if (separator > 0) {
+						String parent = diff.substring(0, separator);
+						String child = diff.substring(separator + 1);
+
+						parents.computeIfAbsent(child, key -> new ArrayList<>()).add(parent);
+						children.merge(parent, 1, Integer::sum);
+					}
+				}
+			}
+
+			return new GraphLayout(files, parents, children);
+		}
+	}
+
+	private static class Session {
+
+		private final Set<String> versions;
+		private final Map<String, Mappings> separatedMappings;
+
+		private String stamp;
+		private VersionGraph graph;
+
+		private Session(String stamp) {
+			this.versions = new HashSet<>();
+			this.separatedMappings = new HashMap<>();
+			this.stamp = stamp;
+		}
+	}
+}
@@ -1,17 +1,36 @@
 package net.ornithemc.keratin.files;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.gson.reflect.TypeToken;
+
 import net.ornithemc.keratin.Configurations;
 import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.MinecraftVersion;
 import net.ornithemc.keratin.api.files.GlobalCacheAccess;
 import net.ornithemc.keratin.api.settings.BuildNumbers;
 import net.ornithemc.keratin.api.settings.ProcessorSettings;
+import net.ornithemc.keratin.cache.ChecksumCache;
+import net.ornithemc.keratin.cache.HttpCache;
 
 public class GlobalCache extends FileContainer implements FileCache, GlobalCacheAccess {
 
@@ -27,6 +46,9 @@ public class GlobalCache extends FileContainer implements FileCache, GlobalCache
 	private final NestsCache nestsCache;
 	private final LibrariesCache librariesCache;
 
+	private final ChecksumCache checksumCache;
+	private final HttpCache httpCache;
+
 	public GlobalCache(KeratinGradleExtension keratin, KeratinFiles files) {
 		super(keratin, files);
 
@@ -41,6 +63,9 @@ public class GlobalCache extends FileContainer implements FileCache, GlobalCache
 		this.signaturesCache = addCache(new SignaturesCache(keratin, files));
 		this.nestsCache = addCache(new NestsCache(keratin, files));
 		this.librariesCache = new LibrariesCache(keratin, files);
+
+		this.checksumCache = new ChecksumCache(getChecksumsDirectory());
+		this.httpCache = new HttpCache(getHttpCacheDirectory(), keratin.getOffline().get());
 	}
 
 	private <C extends FileCache> C addCache(C cache) {
@@ -65,6 +90,24 @@ public class GlobalCache extends FileContainer implements FileCache, GlobalCache
 		return file("versions-manifest.json");
 	}
 
+	@Override
+	public File getChecksumsDirectory() {
+		return file("checksums");
+	}
+
+	public ChecksumCache getChecksumCache() {
+		return checksumCache;
+	}
+
+	@Override
+	public File getHttpCacheDirectory() {
+		return file("http");
+	}
+
+	public HttpCache getHttpCache() {
+		return httpCache;
+	}
+
 	@Override
 	public MetadataCache getMetadataCache() {
 		return metadataCache;
@@ -252,6 +295,8 @@ public class GlobalCache extends FileContainer implements FileCache, GlobalCache
 
 	public static class ProcessedJarsCache extends FileContainer implements FileCache, GlobalCacheAccess.ProcessedJarsCacheAccess {
 
+		private Map<String, ProcessedJarEntry> manifest;
+
 		public ProcessedJarsCache(KeratinGradleExtension keratin, KeratinFiles files) {
 			super(keratin, files);
 		}
@@ -261,9 +306,187 @@ public class GlobalCache extends FileContainer implements FileCache, GlobalCache
 			return files.getGlobalCache().file("processed-jars");
 		}
 
+		public File getManifestJson() {
+			return file("processed-jars.json");
+		}
+
 		@Override
 		public File getProcessedIntermediaryJar(MinecraftVersion minecraftVersion, ProcessorSettings processorSettings) {
-			return file("%s-processed-intermediary-%s.jar".formatted(minecraftVersion.id(), Integer.toHexString(processorSettings.hashCode())));
+			return file("%s-processed-intermediary-%s.jar".formatted(minecraftVersion.id(), getInputsDigest(minecraftVersion, processorSettings)));
+		}
+
+		public synchronized String getInputsDigest(MinecraftVersion minecraftVersion, ProcessorSettings processorSettings) {
+			return getEntry(minecraftVersion, processorSettings).digest();
+		}
+
+		// find a processed jar for the same intermediary jar, libraries and processor
+		// options that was built from different exceptions, signatures or nests, so
+		// that only the classes affected by those differences need reprocessing
+		public synchronized PreviousProcessedJar findPreviousProcessedJar(MinecraftVersion minecraftVersion, ProcessorSettings processorSettings) {
+			ProcessedJarEntry current = getEntry(minecraftVersion, processorSettings);
+
+			File intermediaryJar = files.getGlobalCache().getMappedJarsCache().getMainIntermediaryJar(minecraftVersion);
+			Collection<File> libraries = files.getGlobalCache().getLibrariesCache().getLibraries(minecraftVersion);
+			PreviousProcessedJar previous = null;
+
+			for (ProcessedJarEntry entry : manifest.values()) {
+				if (entry == current || entry.base() == null || !entry.base().equals(current.base()) || entry.digest().equals(current.digest())) {
+					continue;
+				}
+
+				File jar = file("%s-processed-intermediary-%s.jar".formatted(minecraftVersion.id(), entry.digest()));
+
+				if (!jar.exists()) {
+					continue;
+				}
+
+				File exceptions = (entry.exceptions() == null) ? null : new File(entry.exceptions());
+				File signatures = (entry.signatures() == null) ? null : new File(entry.signatures());
+				File nests = (entry.nests() == null) ? null : new File(entry.nests());
+
+				// the data files must still be exactly as they were when the jar was processed
+				if (!entry.inputs().equals(stamp(Arrays.asList(intermediaryJar, exceptions, signatures, nests), libraries))) {
+					continue;
+				}
+
+				if (previous == null || jar.lastModified() > previous.jar().lastModified()) {
+					previous = new PreviousProcessedJar(jar, exceptions, signatures, nests);
+				}
+			}
+
+			return previous;
+		}
+
+		private ProcessedJarEntry getEntry(MinecraftVersion minecraftVersion, ProcessorSettings processorSettings) {
+			if (manifest == null) {
+				manifest = loadManifest();
+			}
+
+			GlobalCache globalCache = files.getGlobalCache();
+
+			File intermediaryJar = globalCache.getMappedJarsCache().getMainIntermediaryJar(minecraftVersion);
+			File exceptions = globalCache.getExceptionsCache().getMainIntermediaryExceptionsFile(minecraftVersion, processorSettings.exceptionsBuilds());
+			File signatures = globalCache.getSignaturesCache().getMainIntermediarySignaturesFile(minecraftVersion, processorSettings.signaturesBuilds());
+			File nests = globalCache.getNestsCache().getMainIntermediaryNestsFile(minecraftVersion, processorSettings.nestsBuilds());
+			Collection<File> libraries = globalCache.getLibrariesCache().getLibraries(minecraftVersion);
+
+			String key = "%s-%s".formatted(minecraftVersion.id(), Integer.toHexString(processorSettings.hashCode()));
+			String stamp = stamp(Arrays.asList(intermediaryJar, exceptions, signatures, nests), libraries);
+
+			ProcessedJarEntry entry = manifest.get(key);
+
+			if (entry == null || !stamp.equals(entry.inputs())) {
+				String base = baseDigest(processorSettings, intermediaryJar, libraries);
+				String digest = digest(base, Arrays.asList(exceptions, signatures, nests));
+
+				entry = new ProcessedJarEntry(digest, base, stamp, path(exceptions), path(signatures), path(nests));
+				manifest.put(key, entry);
+
+				saveManifest();
+			}
+
+			return entry;
+		}
+
+		private static String path(File file) {
+			return (file == null) ? null : file.getAbsolutePath();
+		}
+
+		// the library set is part of the stamp, so that a version whose libraries
+		// change gets a new digest even if the jar and data files did not change
+		private static String stamp(List<File> inputs, Collection<File> libraries) {
+			StringBuilder sb = new StringBuilder();
+
+			for (File input : inputs) {
+				if (input != null && input.exists()) {
+					sb.append(input.getName()).append(':').append(input.length()).append(':').append(input.lastModified());
+				}
+
+				sb.append(';');
+			}
+			for (File library : libraries) {
+				sb.append(library.getName()).append(',');
+			}
+
+			return sb.toString();
+		}
+
+		private static String baseDigest(ProcessorSettings processorSettings, File intermediaryJar, Collection<File> libraries) {
+			Hasher hasher = Hashing.sha256().newHasher();
+
+			hasher.putInt(processorSettings.processorVersion());
+			hasher.putBoolean(processorSettings.obfuscateLocalVariableNames());
+
+			putContents(hasher, intermediaryJar);
+
+			for (File library : libraries) {
+				// library jars are named after their maven coordinates
+				hasher.putString(library.getName(), StandardCharsets.UTF_8);
+			}
+
+			return hasher.hash().toString();
+		}
+
+		private static String digest(String base, List<File> dataFiles) {
+			Hasher hasher = Hashing.sha256().newHasher();
+
+			// build numbers are deliberately left out: only the contents of
+			// the data files influence the processed jar
+			hasher.putString(base, StandardCharsets.UTF_8);
+
+			for (File dataFile : dataFiles) {
+				putContents(hasher, dataFile);
+			}
+
+			// truncate the hash to keep the file names readable
+			return hasher.hash().toString().substring(0, 16);
+		}
+
+		private static void putContents(Hasher hasher, File file) {
+			if (file == null || !file.exists()) {
+				hasher.putInt(0);
+			} else {
+				try {
+					hasher.putInt(1);
+					hasher.putBytes(Files.asByteSource(file).hash(Hashing.sha256()).asBytes());
+				} catch (IOException e) {
+					throw new UncheckedIOException("unable to hash processor input " + file.getName(), e);
+				}
+			}
+		}
+
+		private Map<String, ProcessedJarEntry> loadManifest() {
+			File file = getManifestJson();
+
+			if (file.exists()) {
+				try (Reader reader = new FileReader(file)) {
+					Map<String, ProcessedJarEntry> entries = KeratinGradleExtension.GSON.fromJson(reader, MANIFEST_TYPE);
+
+					if (entries != null) {
+						return entries;
+					}
+				} catch (Exception e) {
+					project.getLogger().warn("unable to read processed jars manifest, it will be rebuilt", e);
+				}
+			}
+
+			return new HashMap<>();
+		}
+
+		private void saveManifest() {
+			try (Writer writer = new BufferedWriter(new FileWriter(getManifestJson()))) {
+				KeratinGradleExtension.GSON.toJson(manifest, MANIFEST_TYPE, writer);
+			} catch (IOException e) {
+				project.getLogger().warn("unable to write processed jars manifest", e);
+			}
+		}
+
+		private static final Type MANIFEST_TYPE = new TypeToken<Map<String, ProcessedJarEntry>>() { }.getType();
+
+		private record ProcessedJarEntry(String digest, String base, String inputs, String exceptions, String signatures, String nests) {
+		}
+
+		public record PreviousProcessedJar(File jar, File exceptions, File signatures, File nests) {
 		}
 	}
 
@@ -368,6 +591,11 @@ public class GlobalCache extends FileContainer implements FileCache, GlobalCache
 		public File getNamedMappingsFile(String minecraftVersion, int build) {
 			return file("%s-named+build.%d.tiny".formatted(minecraftVersion, build));
 		}
+
+		@Override
+		public File getDummyMappingsDirectory() {
+			return file("dummy");
+		}
 	}
 
 	public static class ExceptionsCache extends FileContainer implements FileCache, GlobalCacheAccess.ExceptionsCacheAccess {
@@ -41,4 +41,9 @@ public class LocalCache extends FileContainer implements FileCache, LocalCacheAc
 	public File getNestsBuildsJsonBackup() {
 		return file("nests-builds.json.backup");
 	}
+
+	@Override
+	public File getMappingsGraphCheckpointsDirectory() {
+		return file("graph-checkpoints");
+	}
 }
@@ -111,6 +111,11 @@ public class MappingsDevelopmentFiles extends FileContainer implements MappingsD
 			return file("%s-unpicked-processed-intermediary.jar".formatted(minecraftVersion.id()));
 		}
 
+		@Override
+		public File getUnpickedProcessedIntermediaryJarForDecompile(MinecraftVersion minecraftVersion) {
+			return file("%s-unpicked-processed-intermediary-for-decompile.jar".formatted(minecraftVersion.id()));
+		}
+
 		@Override
 		public File getTinyV1MappingsFile(String minecraftVersion) {
 			return file("%s-tiny-v1.tiny".formatted(minecraftVersion));
@@ -151,6 +156,11 @@ public class MappingsDevelopmentFiles extends FileContainer implements MappingsD
 			return file("%s-processed-named.jar".formatted(minecraftVersion));
 		}
 
+		@Override
+		public File getProcessedNamedJarForDecompile(String minecraftVersion) {
+			return file("%s-processed-named-for-decompile.jar".formatted(minecraftVersion));
+		}
+
 		@Override
 		public File getJavadocNamedJar(String minecraftVersion) {
 			return file("%s-javadoc-named.jar".formatted(minecraftVersion));
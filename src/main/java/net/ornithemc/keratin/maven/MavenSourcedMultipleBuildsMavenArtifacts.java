@@ -1,14 +1,11 @@
 package net.ornithemc.keratin.maven;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.URI;
-import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -25,6 +22,7 @@ import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.maven.MavenArtifact;
 import net.ornithemc.keratin.api.maven.MavenSourcedMavenArtifacts;
 import net.ornithemc.keratin.api.maven.MultipleBuildsMavenArtifacts;
+import net.ornithemc.keratin.cache.HttpCache;
 
 public abstract class MavenSourcedMultipleBuildsMavenArtifacts implements MavenSourcedMavenArtifacts, MultipleBuildsMavenArtifacts {
 
@@ -102,27 +100,25 @@ public abstract class MavenSourcedMultipleBuildsMavenArtifacts implements MavenS
 		);
 
 		try {
-			try (InputStream is = new URI(mavenPomUrl).toURL().openStream()) {
-				XmlParser parser = new XmlParser();
+			XmlParser parser = new XmlParser();
 
-				Node root = parser.parse(is);
-				Node versioning = (Node) ((NodeList) root.get("versioning")).get(0);
-				Node versionsNode = (Node) ((NodeList) versioning.get("versions")).get(0);
+			Node root = parser.parseText(getHttpCache().readString(mavenPomUrl));
+			Node versioning = (Node) ((NodeList) root.get("versioning")).get(0);
+			Node versionsNode = (Node) ((NodeList) versioning.get("versions")).get(0);
 
-				NodeList versionNode = (NodeList) versionsNode.get("version");
+			NodeList versionNode = (NodeList) versionsNode.get("version");
 
-				for (Object o : versionNode) {
-					Node node = (Node) o;
-					String artifactVersion = node.text();
+			for (Object o : versionNode) {
+				Node node = (Node) o;
+				String artifactVersion = node.text();
 
-					Matcher matcher = VERSION_WITH_BUILD_PATTERN.matcher(artifactVersion);
+				Matcher matcher = VERSION_WITH_BUILD_PATTERN.matcher(artifactVersion);
 
-					if (matcher.matches()) {
-						String version = matcher.group(1);
-						int build = Integer.parseInt(matcher.group(2));
+				if (matcher.matches()) {
+					String version = matcher.group(1);
+					int build = Integer.parseInt(matcher.group(2));
 
-						versions.computeIfAbsent(version, key -> new HashSet<>()).add(build);
-					}
+					versions.computeIfAbsent(version, key -> new HashSet<>()).add(build);
 				}
 			}
 		} catch (Exception e) {
@@ -130,26 +126,48 @@ public abstract class MavenSourcedMultipleBuildsMavenArtifacts implements MavenS
 		}
 	}
 
-	private void findArtifact(String minecraftVersion, int build) {
+	@Override
+	public void prefetch(Map<String, Integer> builds) {
+		if (versions == null) {
+			findVersions();
+		}
+
+		List<String> sha1Urls = new ArrayList<>();
+
+		for (Map.Entry<String, Integer> e : builds.entrySet()) {
+			MavenArtifact artifact = createArtifact(e.getKey(), e.getValue());
+
+			if (artifact != null) {
+				sha1Urls.add(artifact.url() + ".sha1");
+			}
+		}
+
+		getHttpCache().prefetch(sha1Urls);
+	}
+
+	private MavenArtifact createArtifact(String minecraftVersion, int build) {
 		Set<Integer> builds = versions.get(minecraftVersion);
-		MavenArtifact artifact = null;
 
-		if (builds != null && builds.contains(build)) {
-			artifact = MavenArtifact.of(
-					getGroupId().get(),
-					getArtifactId().get().formatted(keratin.getIntermediaryGen().get()),
-					String.format("%s+build.%d", minecraftVersion, build)
-				)
-				.withRepositoryUrl(getRepositoryUrl().get())
-				.withClassifier(getClassifier().getOrNull());
+		if (builds == null || !builds.contains(build)) {
+			return null;
+		}
 
-			try {
-				String sha1Path = artifact.url() + ".sha1";
-				URL sha1Url = new URI(sha1Path).toURL();
+		return MavenArtifact.of(
+				getGroupId().get(),
+				getArtifactId().get().formatted(keratin.getIntermediaryGen().get()),
+				String.format("%s+build.%d", minecraftVersion, build)
+			)
+			.withRepositoryUrl(getRepositoryUrl().get())
+			.withClassifier(getClassifier().getOrNull());
+	}
 
-				try (BufferedReader br = new BufferedReader(new InputStreamReader(sha1Url.openStream()))) {
-					artifact = artifact.withSha1(br.readLine());
-				}
+	private void findArtifact(String minecraftVersion, int build) {
+		MavenArtifact artifact = createArtifact(minecraftVersion, build);
+
+		if (artifact != null) {
+			try {
+				String sha1 = getHttpCache().readImmutableString(artifact.url() + ".sha1");
+				artifact = artifact.withSha1(sha1.lines().findFirst().orElse(null));
 			} catch (Exception e) {
 				keratin.getProject().getLogger().warn("unable to find maven artifact sha1 hash for " + artifact.artifactId() + " version " + artifact.version() + "!", e);
 			}
@@ -157,4 +175,8 @@ public abstract class MavenSourcedMultipleBuildsMavenArtifacts implements MavenS
 
 		artifacts.computeIfAbsent(minecraftVersion, key -> new HashMap<>()).put(build, artifact);
 	}
+
+	private HttpCache getHttpCache() {
+		return keratin.getFiles().getGlobalCache().getHttpCache();
+	}
 }
@@ -1,12 +1,10 @@
 package net.ornithemc.keratin.maven;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.URI;
-import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -20,6 +18,7 @@ import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.maven.MavenArtifact;
 import net.ornithemc.keratin.api.maven.MavenSourcedMavenArtifacts;
 import net.ornithemc.keratin.api.maven.SingleBuildMavenArtifacts;
+import net.ornithemc.keratin.cache.HttpCache;
 
 public abstract class MavenSourcedSingleBuildMavenArtifacts implements MavenSourcedMavenArtifacts, SingleBuildMavenArtifacts {
 
@@ -68,46 +67,65 @@ public abstract class MavenSourcedSingleBuildMavenArtifacts implements MavenSour
 		);
 
 		try {
-			try (InputStream is = new URI(mavenPomUrl).toURL().openStream()) {
-				XmlParser parser = new XmlParser();
+			XmlParser parser = new XmlParser();
 
-				Node root = parser.parse(is);
-				Node versioning = (Node) ((NodeList) root.get("versioning")).get(0);
-				Node versionsNode = (Node) ((NodeList) versioning.get("versions")).get(0);
+			Node root = parser.parseText(getHttpCache().readString(mavenPomUrl));
+			Node versioning = (Node) ((NodeList) root.get("versioning")).get(0);
+			Node versionsNode = (Node) ((NodeList) versioning.get("versions")).get(0);
 
-				NodeList versionNode = (NodeList) versionsNode.get("version");
+			NodeList versionNode = (NodeList) versionsNode.get("version");
 
-				for (Object o : versionNode) {
-					Node node = (Node) o;
-					String version = node.text();
+			for (Object o : versionNode) {
+				Node node = (Node) o;
+				String version = node.text();
 
-					versions.add(version);
-				}
+				versions.add(version);
 			}
 		} catch (Exception e) {
 			keratin.getProject().getLogger().warn("unable to parse maven artifact versions from " + mavenPomUrl + "!", e);
 		}
 	}
 
-	private void findArtifact(String minecraftVersion) {
-		MavenArtifact artifact = null;
+	@Override
+	public void prefetch(Collection<String> minecraftVersions) {
+		if (versions == null) {
+			findVersions();
+		}
 
-		if (versions.contains(minecraftVersion)) {
-			artifact = MavenArtifact.of(
-					getGroupId().get(),
-					getArtifactId().get().formatted(keratin.getIntermediaryGen().get()),
-					minecraftVersion
-				)
-				.withRepositoryUrl(getRepositoryUrl().get())
-				.withClassifier(getClassifier().getOrNull());
+		List<String> sha1Urls = new ArrayList<>();
 
-			try {
-				String sha1Path = artifact.url() + ".sha1";
-				URL sha1Url = new URI(sha1Path).toURL();
+		for (String minecraftVersion : minecraftVersions) {
+			MavenArtifact artifact = createArtifact(minecraftVersion);
+
+			if (artifact != null) {
+				sha1Urls.add(artifact.url() + ".sha1");
+			}
+		}
+
+		getHttpCache().prefetch(sha1Urls);
+	}
+
+	private MavenArtifact createArtifact(String minecraftVersion) {
+		if (!versions.contains(minecraftVersion)) {
+			return null;
+		}
+
+		return MavenArtifact.of(
+				getGroupId().get(),
+				getArtifactId().get().formatted(keratin.getIntermediaryGen().get()),
+				minecraftVersion
+			)
+			.withRepositoryUrl(getRepositoryUrl().get())
+			.withClassifier(getClassifier().getOrNull());
+	}
 
-				try (BufferedReader br = new BufferedReader(new InputStreamReader(sha1Url.openStream()))) {
-					artifact = artifact.withSha1(br.readLine());
-				}
+	private void findArtifact(String minecraftVersion) {
+		MavenArtifact artifact = createArtifact(minecraftVersion);
+
+		if (artifact != null) {
+			try {
+				String sha1 = getHttpCache().readImmutableString(artifact.url() + ".sha1");
+				artifact = artifact.withSha1(sha1.lines().findFirst().orElse(null));
 			} catch (Exception e) {
 				keratin.getProject().getLogger().warn("unable to find maven artifact sha1 hash for " + artifact.artifactId() + " version " + artifact.version() + "!", e);
 			}
@@ -115,4 +133,8 @@ public abstract class MavenSourcedSingleBuildMavenArtifacts implements MavenSour
 
 		artifacts.put(minecraftVersion, artifact);
 	}
+
+	private HttpCache getHttpCache() {
+		return keratin.getFiles().getGlobalCache().getHttpCache();
+	}
 }
@@ -1,12 +1,10 @@
 package net.ornithemc.keratin.maven;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.URI;
-import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -20,6 +18,7 @@ import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.maven.MavenArtifact;
 import net.ornithemc.keratin.api.maven.MetaSourcedMavenArtifacts;
 import net.ornithemc.keratin.api.maven.MultipleBuildsMavenArtifacts;
+import net.ornithemc.keratin.cache.HttpCache;
 
 public abstract class MetaSourcedMultipleBuildsMavenArtifacts implements MetaSourcedMavenArtifacts, MultipleBuildsMavenArtifacts {
 
@@ -94,18 +93,16 @@ public abstract class MetaSourcedMultipleBuildsMavenArtifacts implements MetaSou
 		);
 
 		try {
-			try (InputStreamReader ir = new InputStreamReader(new URI(metaEndpointUrl).toURL().openStream())) {
-				JsonArray jsonArray = KeratinGradleExtension.GSON.fromJson(ir, JsonArray.class);
-
-				for (JsonElement jsonEntry : jsonArray) {
-					if (jsonEntry.isJsonObject()) {
-						JsonObject json = jsonEntry.getAsJsonObject();
-						String version = json.get("gameVersion").getAsString();
-						int build = json.get("build").getAsInt();
-						String maven = json.get("maven").getAsString();
-
-						versions.computeIfAbsent(version, key -> new HashMap<>()).put(build, maven);
-					}
+			JsonArray jsonArray = KeratinGradleExtension.GSON.fromJson(getHttpCache().readString(metaEndpointUrl), JsonArray.class);
+
+			for (JsonElement jsonEntry : jsonArray) {
+				if (jsonEntry.isJsonObject()) {
+					JsonObject json = jsonEntry.getAsJsonObject();
+					String version = json.get("gameVersion").getAsString();
+					int build = json.get("build").getAsInt();
+					String maven = json.get("maven").getAsString();
+
+					versions.computeIfAbsent(version, key -> new HashMap<>()).put(build, maven);
 				}
 			}
 		} catch (Exception e) {
@@ -113,31 +110,54 @@ public abstract class MetaSourcedMultipleBuildsMavenArtifacts implements MetaSou
 		}
 	}
 
-	private void findArtifact(String minecraftVersion, int build) {
-		Map<Integer, String> builds = versions.get(minecraftVersion);
-		MavenArtifact artifact = null;
+	@Override
+	public void prefetch(Map<String, Integer> builds) {
+		if (versions == null) {
+			findVersions();
+		}
 
-		if (builds != null) {
-			String maven = builds.get(build);
+		List<String> sha1Urls = new ArrayList<>();
 
-			if (maven != null) {
-				artifact = MavenArtifact.of(maven)
-					.withRepositoryUrl(getRepositoryUrl().get())
-					.withClassifier(getClassifier().getOrNull());
+		for (Map.Entry<String, Integer> e : builds.entrySet()) {
+			MavenArtifact artifact = createArtifact(e.getKey(), e.getValue());
 
-				try {
-					String sha1Path = artifact.url() + ".sha1";
-					URL sha1Url = new URI(sha1Path).toURL();
+			if (artifact != null) {
+				sha1Urls.add(artifact.url() + ".sha1");
+			}
+		}
 
-					try (BufferedReader br = new BufferedReader(new InputStreamReader(sha1Url.openStream()))) {
-						artifact = artifact.withSha1(br.readLine());
-					}
-				} catch (Exception e) {
-					keratin.getProject().getLogger().warn("unable to find maven artifact sha1 hash for " + artifact.artifactId() + " version " + artifact.version() + "!", e);
-				}
+		getHttpCache().prefetch(sha1Urls);
+	}
+
+	private MavenArtifact createArtifact(String minecraftVersion, int build) {
+		Map<Integer, String> builds = versions.get(minecraftVersion);
+		String maven = (builds == null) ? null : builds.get(build);
+
+		if (maven == null) {
+			return null;
+		}
+
+		return MavenArtifact.of(maven)
+			.withRepositoryUrl(getRepositoryUrl().get())
+			.withClassifier(getClassifier().getOrNull());
+	}
+
+	private void findArtifact(String minecraftVersion, int build) {
+		MavenArtifact artifact = createArtifact(minecraftVersion, build);
+
+		if (artifact != null) {
+			try {
+				String sha1 = getHttpCache().readImmutableString(artifact.url() + ".sha1");
+				artifact = artifact.withSha1(sha1.lines().findFirst().orElse(null));
+			} catch (Exception e) {
+				keratin.getProject().getLogger().warn("unable to find maven artifact sha1 hash for " + artifact.artifactId() + " version " + artifact.version() + "!", e);
 			}
 		}
 
 		artifacts.computeIfAbsent(minecraftVersion, key -> new HashMap<>()).put(build, artifact);
 	}
+
+	private HttpCache getHttpCache() {
+		return keratin.getFiles().getGlobalCache().getHttpCache();
+	}
 }
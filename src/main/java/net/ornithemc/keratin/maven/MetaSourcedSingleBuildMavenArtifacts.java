@@ -1,10 +1,9 @@
 package net.ornithemc.keratin.maven;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.URI;
-import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.inject.Inject;
@@ -17,6 +16,7 @@ import net.ornithemc.keratin.KeratinGradleExtension;
 import net.ornithemc.keratin.api.maven.MavenArtifact;
 import net.ornithemc.keratin.api.maven.MetaSourcedMavenArtifacts;
 import net.ornithemc.keratin.api.maven.SingleBuildMavenArtifacts;
+import net.ornithemc.keratin.cache.HttpCache;
 
 public abstract class MetaSourcedSingleBuildMavenArtifacts implements MetaSourcedMavenArtifacts, SingleBuildMavenArtifacts {
 
@@ -64,17 +64,15 @@ public abstract class MetaSourcedSingleBuildMavenArtifacts implements MetaSource
 		);
 
 		try {
-			try (InputStreamReader ir = new InputStreamReader(new URI(metaEndpointUrl).toURL().openStream())) {
-				JsonArray jsonArray = KeratinGradleExtension.GSON.fromJson(ir, JsonArray.class);
+			JsonArray jsonArray = KeratinGradleExtension.GSON.fromJson(getHttpCache().readString(metaEndpointUrl), JsonArray.class);
 
-				for (JsonElement jsonEntry : jsonArray) {
-					if (jsonEntry.isJsonObject()) {
-						JsonObject json = jsonEntry.getAsJsonObject();
-						String version = json.get("version").getAsString();
-						String maven = json.get("maven").getAsString();
+			for (JsonElement jsonEntry : jsonArray) {
+				if (jsonEntry.isJsonObject()) {
+					JsonObject json = jsonEntry.getAsJsonObject();
+					String version = json.get("version").getAsString();
+					String maven = json.get("maven").getAsString();
 
-						versions.put(version, maven);
-					}
+					versions.put(version, maven);
 				}
 			}
 		} catch (Exception e) {
@@ -82,22 +80,44 @@ public abstract class MetaSourcedSingleBuildMavenArtifacts implements MetaSource
 		}
 	}
 
-	private void findArtifact(String minecraftVersion) {
+	@Override
+	public void prefetch(Collection<String> minecraftVersions) {
+		if (versions == null) {
+			findVersions();
+		}
+
+		List<String> sha1Urls = new ArrayList<>();
+
+		for (String minecraftVersion : minecraftVersions) {
+			MavenArtifact artifact = createArtifact(minecraftVersion);
+
+			if (artifact != null) {
+				sha1Urls.add(artifact.url() + ".sha1");
+			}
+		}
+
+		getHttpCache().prefetch(sha1Urls);
+	}
+
+	private MavenArtifact createArtifact(String minecraftVersion) {
 		String maven = versions.get(minecraftVersion);
-		MavenArtifact artifact = null;
 
-		if (maven != null) {
-			artifact = MavenArtifact.of(maven)
-				.withRepositoryUrl(getRepositoryUrl().get())
-				.withClassifier(getClassifier().getOrNull());
+		if (maven == null) {
+			return null;
+		}
 
-			try {
-				String sha1Path = artifact.url() + ".sha1";
-				URL sha1Url = new URI(sha1Path).toURL();
+		return MavenArtifact.of(maven)
+			.withRepositoryUrl(getRepositoryUrl().get())
+			.withClassifier(getClassifier().getOrNull());
+	}
 
-				try (BufferedReader br = new BufferedReader(new InputStreamReader(sha1Url.openStream()))) {
-					artifact = artifact.withSha1(br.readLine());
-				}
+	private void findArtifact(String minecraftVersion) {
+		MavenArtifact artifact = createArtifact(minecraftVersion);
+
+		if (artifact != null) {
+			try {
+				String sha1 = getHttpCache().readImmutableString(artifact.url() + ".sha1");
+				artifact = artifact.withSha1(sha1.lines().findFirst().orElse(null));
 			} catch (Exception e) {
 				keratin.getProject().getLogger().warn("unable to find maven artifact sha1 hash for " + artifact.artifactId() + " version " + artifact.version() + "!", e);
 			}
@@ -105,4 +125,8 @@ public abstract class MetaSourcedSingleBuildMavenArtifacts implements MetaSource
 
 		artifacts.put(minecraftVersion, artifact);
 	}
+
+	private HttpCache getHttpCache() {
+		return keratin.getFiles().getGlobalCache().getHttpCache();
+	}
 }
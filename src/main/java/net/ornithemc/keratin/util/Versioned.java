@@ -1,12 +1,19 @@
 package net.ornithemc.keratin.util;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiFunction;
 
 public class Versioned<V, T> {
 
-	private final Map<V, T> values;
+	private final Map<V, CompletableFuture<T>> values;
 	private final ThrowingFunction<V, T> factory;
 	private final BiFunction<V, Exception, RuntimeException> exceptions;
 
@@ -15,23 +22,56 @@ public class Versioned<V, T> {
 	}
 
 	public Versioned(ThrowingFunction<V, T> factory, BiFunction<V, Exception, RuntimeException> exceptions) {
-		this.values = new HashMap<>();
+		this.values = new ConcurrentHashMap<>();
 		this.factory = factory;
 		this.exceptions = exceptions;
 	}
 
 	public T get(V version) {
-		T value = values.get(version);
+		CompletableFuture<T> value = values.get(version);
 
 		if (value == null) {
-			try {
-				value = factory.apply(version);
-				values.put(version, value);
-			} catch (Exception e) {
-				throw exceptions.apply(version, e);
+			CompletableFuture<T> newValue = new CompletableFuture<>();
+			value = values.putIfAbsent(version, newValue);
+
+			// only one thread computes the value for a version,
+			// others wait for it to be done
+			if (value == null) {
+				value = newValue;
+
+				try {
+					newValue.complete(factory.apply(version));
+				} catch (Exception e) {
+					// failures are not remembered, the next call tries again
+					values.remove(version, newValue);
+					newValue.completeExceptionally(e);
+				}
 			}
 		}
 
-		return value;
+		try {
+			return value.join();
+		} catch (CompletionException e) {
+			throw exceptions.apply(version, (e.getCause() instanceof Exception cause) ? cause : e);
+		}
+	}
+
+	// computes the values for the given versions in parallel - failures are
+	// left for later calls to get to report
+	public void prefetch(Collection<V> versions, int threads) {
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+			for (V version : versions) {
+				futures.add(CompletableFuture.runAsync(() -> {
+					try {
+						get(version);
+					} catch (RuntimeException e) {
+					}
+				}, executor));
+			}
+
+			CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+		}
 	}
 }
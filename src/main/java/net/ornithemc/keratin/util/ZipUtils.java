@@ -0,0 +1,278 @@
+package net.ornithemc.keratin.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+public final class ZipUtils {
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int CENTRAL_HEADER_SIZE = 46;
+	private static final int END_SIZE = 22;
+
+	private static final int FLAG_ENCRYPTED = 0x1;
+	private static final int FLAG_DATA_DESCRIPTOR = 0x8;
+
+	// copies the entries accepted by the filter without inflating and deflating
+	// them again - the compressed bytes, crc and sizes are kept as they are
+	public static void copyEntries(File input, File output, Predicate<String> filter) throws IOException {
+		try (FileChannel in = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+			List<CentralEntry> entries = readCentralDirectory(in);
+
+			if (entries != null) {
+				entries = entries.stream().filter(entry -> filter.test(entry.name())).toList();
+			}
+
+			// zip64 or otherwise unusual archives, and outputs with more entries than
+			// the end record can count without zip64, fall back to a regular copy
+			if (entries == null || entries.size() >= 0xFFFF) {
+				copyEntriesInflated(input, output, filter);
+				return;
+			}
+
+			try (FileChannel out = FileChannel.open(output.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				List<CentralEntry> written = new ArrayList<>();
+
+				for (CentralEntry entry : entries) {
+					ByteBuffer localHeader = read(in, entry.localHeaderOffset(), LOCAL_HEADER_SIZE);
+
+					if (localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+						throw new ZipException("invalid local header for entry " + entry.name());
+					}
+
+					int localNameLength = Short.toUnsignedInt(localHeader.getShort(26));
+					int localExtraLength = Short.toUnsignedInt(localHeader.getShort(28));
+					long dataOffset = entry.localHeaderOffset() + LOCAL_HEADER_SIZE + localNameLength;
+					ByteBuffer localExtra = read(in, dataOffset, localExtraLength);
+					dataOffset += localExtraLength;
+
+					long offset = out.position();
+
+					// the crc and sizes are known from the central directory,
+					// so they can go into the local header directly
+					ByteBuffer header = buffer(LOCAL_HEADER_SIZE + entry.nameBytes().length + localExtraLength);
+					header.putInt(LOCAL_HEADER_SIGNATURE);
+					header.putShort((short) entry.versionNeeded());
+					header.putShort((short) (entry.flags() & ~FLAG_DATA_DESCRIPTOR));
+					header.putShort((short) entry.method());
+					header.putShort((short) entry.time());
+					header.putShort((short) entry.date());
+					header.putInt(entry.crc());
+					header.putInt((int) entry.compressedSize());
+					header.putInt((int) entry.size());
+					header.putShort((short) entry.nameBytes().length);
+					header.putShort((short) localExtraLength);
+					header.put(entry.nameBytes());
+					header.put(localExtra);
+					write(out, header.flip());
+
+					for (long pos = dataOffset, end = dataOffset + entry.compressedSize(); pos < end; ) {
+						pos += in.transferTo(pos, end - pos, out);
+					}
+
+					written.add(entry.withLocalHeaderOffset(offset));
+				}
+
+				long centralOffset = out.position();
+
+				for (CentralEntry entry : written) {
+					ByteBuffer header = buffer(CENTRAL_HEADER_SIZE + entry.nameBytes().length + entry.extra().length + entry.comment().length);
+					header.putInt(CENTRAL_HEADER_SIGNATURE);
+					header.putShort((short) entry.versionMadeBy());
+					header.putShort((short) entry.versionNeeded());
+					header.putShort((short) (entry.flags() & ~FLAG_DATA_DESCRIPTOR));
+					header.putShort((short) entry.method());
+					header.putShort((short) entry.time());
+					header.putShort((short) entry.date());
+					header.putInt(entry.crc());
+					header.putInt((int) entry.compressedSize());
+					header.putInt((int) entry.size());
+					header.putShort((short) entry.nameBytes().length);
+					header.putShort((short) entry.extra().length);
+					header.putShort((short) entry.comment().length);
+					header.putShort((short) 0); // disk number
+					header.putShort((short) entry.internalAttributes());
+					header.putInt(entry.externalAttributes());
+					header.putInt((int) entry.localHeaderOffset());
+					header.put(entry.nameBytes());
+					header.put(entry.extra());
+					header.put(entry.comment());
+					write(out, header.flip());
+				}
+
+				long centralSize = out.position() - centralOffset;
+
+				if (out.position() > 0xFFFFFFFFL) {
+					throw new ZipException("output is too large to be written without zip64 extensions");
+				}
+
+				ByteBuffer end = buffer(END_SIZE);
+				end.putInt(END_SIGNATURE);
+				end.putShort((short) 0);
+				end.putShort((short) 0);
+				end.putShort((short) written.size());
+				end.putShort((short) written.size());
+				end.putInt((int) centralSize);
+				end.putInt((int) centralOffset);
+				end.putShort((short) 0);
+				write(out, end.flip());
+			}
+		} catch (IOException e) {
+			Files.deleteIfExists(output.toPath());
+			throw e;
+		}
+	}
+
+	public static void extractEntry(File zip, String name, File output) throws IOException {
+		try (ZipFile zipFile = new ZipFile(zip)) {
+			ZipEntry entry = zipFile.getEntry(name.startsWith("/") ? name.substring(1) : name);
+
+			if (entry == null) {
+				throw new IOException("file " + name + " could not be found!");
+			}
+
+			try (InputStream is = zipFile.getInputStream(entry)) {
+				Files.copy(is, output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+
+	private static void copyEntriesInflated(File input, File output, Predicate<String> filter) throws IOException {
+		try (ZipFile zip = new ZipFile(input);
+			ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(output.toPath()))) {
+			for (ZipEntry entry : zip.stream().filter(e -> filter.test(e.getName())).toList()) {
+				zos.putNextEntry(new ZipEntry(entry.getName()));
+
+				try (InputStream is = zip.getInputStream(entry)) {
+					is.transferTo(zos);
+				}
+
+				zos.closeEntry();
+			}
+		}
+	}
+
+	private static List<CentralEntry> readCentralDirectory(FileChannel in) throws IOException {
+		long size = in.size();
+
+		if (size < END_SIZE) {
+			throw new ZipException("not a zip file");
+		}
+
+		// the end record is followed by a comment of at most 0xFFFF bytes
+		int tailLength = (int) Math.min(size, END_SIZE + 0xFFFF);
+		ByteBuffer tail = read(in, size - tailLength, tailLength);
+		int endPos = -1;
+
+		for (int i = tailLength - END_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == END_SIGNATURE) {
+				endPos = i;
+				break;
+			}
+		}
+
+		if (endPos < 0) {
+			throw new ZipException("end of central directory not found");
+		}
+
+		int entryCount = Short.toUnsignedInt(tail.getShort(endPos + 10));
+		long centralSize = Integer.toUnsignedLong(tail.getInt(endPos + 12));
+		long centralOffset = Integer.toUnsignedLong(tail.getInt(endPos + 16));
+
+		if (entryCount == 0xFFFF || centralSize == 0xFFFFFFFFL || centralOffset == 0xFFFFFFFFL) {
+			return null;
+		}
+
+		ByteBuffer central = read(in, centralOffset, (int) centralSize);
+		List<CentralEntry> entries = new ArrayList<>(entryCount);
+
+		for (int i = 0; i < entryCount; i++) {
+			if (central.getInt() != CENTRAL_HEADER_SIGNATURE) {
+				throw new ZipException("invalid central directory header");
+			}
+
+			int versionMadeBy = Short.toUnsignedInt(central.getShort());
+			int versionNeeded = Short.toUnsignedInt(central.getShort());
+			int flags = Short.toUnsignedInt(central.getShort());
+			int method = Short.toUnsignedInt(central.getShort());
+			int time = Short.toUnsignedInt(central.getShort());
+			int date = Short.toUnsignedInt(central.getShort());
+			int crc = central.getInt();
+			long compressedSize = Integer.toUnsignedLong(central.getInt());
+			long uncompressedSize = Integer.toUnsignedLong(central.getInt());
+			int nameLength = Short.toUnsignedInt(central.getShort());
+			int extraLength = Short.toUnsignedInt(central.getShort());
+			int commentLength = Short.toUnsignedInt(central.getShort());
+			central.getShort(); // disk number
+			int internalAttributes = Short.toUnsignedInt(central.getShort());
+			int externalAttributes = central.getInt();
+			long localHeaderOffset = Integer.toUnsignedLong(central.getInt());
+
+			byte[] name = new byte[nameLength];
+			byte[] extra = new byte[extraLength];
+			byte[] comment = new byte[commentLength];
+			central.get(name).get(extra).get(comment);
+
+			if ((flags & FLAG_ENCRYPTED) != 0 || compressedSize == 0xFFFFFFFFL || uncompressedSize == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+				return null;
+			}
+
+			entries.add(new CentralEntry(versionMadeBy, versionNeeded, flags, method, time, date, crc, compressedSize, uncompressedSize, name, extra, comment, internalAttributes, externalAttributes, localHeaderOffset));
+		}
+
+		return entries;
+	}
+
+	private static ByteBuffer buffer(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static ByteBuffer read(FileChannel in, long position, int length) throws IOException {
+		ByteBuffer buffer = buffer(length);
+
+		while (buffer.hasRemaining()) {
+			if (in.read(buffer, position + buffer.position()) < 0) {
+				throw new ZipException("unexpected end of zip file");
+			}
+		}
+
+		return buffer.flip();
+	}
+
+	private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+	}
+
+	private record CentralEntry(int versionMadeBy, int versionNeeded, int flags, int method, int time, int date, int crc, long compressedSize, long size, byte[] nameBytes, byte[] extra, byte[] comment, int internalAttributes, int externalAttributes, long localHeaderOffset) {
+
+		String name() {
+			// names are utf-8 encoded when the language encoding flag is set,
+			// and java's zip implementation defaults to utf-8 otherwise too
+			return new String(nameBytes, StandardCharsets.UTF_8);
+		}
+
+		CentralEntry withLocalHeaderOffset(long localHeaderOffset) {
+			return new CentralEntry(versionMadeBy, versionNeeded, flags, method, time, date, crc, compressedSize, size, nameBytes, extra, comment, internalAttributes, externalAttributes, localHeaderOffset);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package net.ornithemc.keratin.api.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MinecraftTaskTest {
+
+	@TempDir
+	File directory;
+
+	private File jar;
+	private File exceptions;
+	private File signatures;
+	private File output;
+
+	// collects the inputs like the processing task does, for a version
+	// that has exceptions and signatures builds, but no nests build
+	private BiConsumer<String, List<File>> inputs;
+
+	@BeforeEach
+	public void createFiles() throws IOException {
+		jar = write("1.0-intermediary.jar", 100);
+		exceptions = write("1.0-exceptions.excs", 10);
+		signatures = write("1.0-signatures.sigs", 1);
+		output = write("1.0-processed.jar", 100);
+
+		inputs = (minecraftVersion, files) -> {
+			files.add(jar);
+			files.add(exceptions);
+			files.add(signatures);
+			files.add(null); // no nests build
+		};
+	}
+
+	private File write(String name, int size) throws IOException {
+		File file = new File(directory, name);
+		Files.write(file.toPath(), new byte[size]);
+		file.setLastModified(1_000_000L);
+
+		return file;
+	}
+
+	@Test
+	public void leavesOutMissingDataFiles() {
+		assertEquals(List.of(jar, exceptions, signatures), MinecraftTask.collectFiles(List.of("1.0"), inputs));
+		assertEquals(111, MinecraftTask.sizeOf(MinecraftTask.collectFiles(List.of("1.0"), inputs)));
+	}
+
+	@Test
+	public void overwritesOnlyOutdatedOutputs() {
+		List<File> collectedInputs = MinecraftTask.collectFiles(List.of("1.0"), inputs);
+
+		assertFalse(MinecraftTask.isOutOfDate(collectedInputs, List.of(output)));
+
+		signatures.setLastModified(2_000_000L);
+
+		assertTrue(MinecraftTask.isOutOfDate(collectedInputs, List.of(output)));
+		assertTrue(MinecraftTask.isOutOfDate(collectedInputs, List.of(new File(directory, "missing.jar"))));
+	}
+}
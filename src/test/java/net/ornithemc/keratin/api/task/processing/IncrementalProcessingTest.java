@@ -0,0 +1,180 @@
+package net.ornithemc.keratin.api.task.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IncrementalProcessingTest {
+
+	@TempDir
+	File directory;
+
+	private File input;
+
+	// the classes are plain text rather than class files, the stages below
+	// only need to see which classes mention which other classes
+	@BeforeEach
+	public void createInput() throws IOException {
+		Map<String, String> classes = new TreeMap<>();
+
+		classes.put("a/A", "class a/A");
+		classes.put("a/B", "class a/B uses a/A");
+		classes.put("c/C", "class c/C");
+		classes.put("d/D", "class d/D");
+
+		for (int i = 0; i < 8; i++) {
+			classes.put("f/F" + i, "class f/F" + i);
+		}
+
+		input = new File(directory, "input.jar");
+		writeJar(input, classes);
+	}
+
+	@Test
+	public void matchesFullRunAfterNestsAndSignaturesChange() throws IOException {
+		File oldSignatures = write("old.sigs", "c/C old\nd/D same\n");
+		File newSignatures = write("new.sigs", "c/C new\nd/D same\n");
+		File oldNests = write("old.nests", "");
+		File newNests = write("new.nests", "a/A a/Outer$A\n");
+
+		File previous = full(oldSignatures, oldNests, "previous.jar");
+		File incremental = incremental(previous, oldSignatures, oldNests, newSignatures, newNests, "incremental.jar");
+
+		assertEquals(readJar(full(newSignatures, newNests, "full.jar")), readJar(incremental));
+	}
+
+	@Test
+	public void matchesFullRunAfterChainedIncrementalRuns() throws IOException {
+		File signatures1 = write("1.sigs", "c/C one\n");
+		File signatures2 = write("2.sigs", "c/C two\n");
+		File signatures3 = write("3.sigs", "c/C two\nd/D three\n");
+		File nests1 = write("1.nests", "a/A a/Outer$A\n");
+		File nests2 = write("2.nests", "");
+		File nests3 = write("3.nests", "a/A a/Other$A\n");
+
+		File output1 = full(signatures1, nests1, "1.jar");
+		File output2 = incremental(output1, signatures1, nests1, signatures2, nests2, "2.jar");
+		File output3 = incremental(output2, signatures2, nests2, signatures3, nests3, "3.jar");
+
+		assertEquals(readJar(full(signatures2, nests2, "full2.jar")), readJar(output2));
+		assertEquals(readJar(full(signatures3, nests3, "full3.jar")), readJar(output3));
+	}
+
+	private File full(File signatures, File nests, String name) throws IOException {
+		File output = new File(directory, name);
+		createPipeline(null, signatures, nests).run(input, output);
+
+		return output;
+	}
+
+	private File incremental(File previous, File oldSignatures, File oldNests, File newSignatures, File newNests, String name) throws IOException {
+		File output = new File(directory, name);
+
+		IncrementalProcessing incremental = new IncrementalProcessing(input);
+		Set<String> affected = incremental.findAffectedClasses(null, null, oldSignatures, newSignatures, oldNests, newNests);
+
+		assertNotNull(affected);
+
+		incremental.run(affected, previous, output,
+			classPath -> createPipeline(classPath, oldSignatures, oldNests),
+			classPath -> createPipeline(classPath, newSignatures, newNests));
+
+		return output;
+	}
+
+	// mimics the signature patcher, which changes classes in place, and
+	// the nester, which renames classes and the references to them
+	private static ProcessingPipeline createPipeline(File classPath, File signatures, File nests) {
+		return new ProcessingPipeline()
+			.thenTransform((jarIn, jarOut) -> {
+				Map<String, String> classes = readJar(jarIn);
+				checkClassPath(classes, classPath);
+
+				for (String[] signature : readLines(signatures)) {
+					classes.computeIfPresent(signature[0], (name, text) -> text + " sig=" + signature[1]);
+				}
+
+				writeJar(jarOut, classes);
+			})
+			.thenTransform((jarIn, jarOut) -> {
+				Map<String, String> classes = readJar(jarIn);
+
+				for (String[] nest : readLines(nests)) {
+					Map<String, String> nested = new TreeMap<>();
+
+					for (Map.Entry<String, String> e : classes.entrySet()) {
+						String name = e.getKey().equals(nest[0]) ? nest[1] : e.getKey();
+						nested.put(name, e.getValue().replace(nest[0], nest[1]));
+					}
+
+					classes = nested;
+				}
+
+				writeJar(jarOut, classes);
+			});
+	}
+
+	private static void checkClassPath(Map<String, String> classes, File classPath) throws IOException {
+		if (classPath != null) {
+			for (String name : readJar(classPath).keySet()) {
+				if (classes.containsKey(name)) {
+					throw new IOException(name + " is both processed and on the class path");
+				}
+			}
+		}
+	}
+
+	private File write(String name, String contents) throws IOException {
+		File file = new File(directory, name);
+		Files.writeString(file.toPath(), contents);
+
+		return file;
+	}
+
+	private static String[][] readLines(File file) throws IOException {
+		return Files.readAllLines(file.toPath()).stream().filter(line -> !line.isEmpty()).map(line -> line.split(" ")).toArray(String[][]::new);
+	}
+
+	private static Map<String, String> readJar(File jar) throws IOException {
+		Map<String, String> classes = new TreeMap<>();
+
+		try (ZipFile zip = new ZipFile(jar)) {
+			for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+				ZipEntry entry = entries.nextElement();
+
+				try (InputStream is = zip.getInputStream(entry)) {
+					classes.put(entry.getName().substring(0, entry.getName().length() - ".class".length()), new String(is.readAllBytes(), StandardCharsets.ISO_8859_1));
+				}
+			}
+		}
+
+		return classes;
+	}
+
+	private static void writeJar(File jar, Map<String, String> classes) throws IOException {
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar.toPath()))) {
+			for (Map.Entry<String, String> e : new HashMap<>(classes).entrySet()) {
+				zos.putNextEntry(new ZipEntry(e.getKey() + ".class"));
+				zos.write(e.getValue().getBytes(StandardCharsets.ISO_8859_1));
+				zos.closeEntry();
+			}
+		}
+	}
+}
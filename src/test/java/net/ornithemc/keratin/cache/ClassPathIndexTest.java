@@ -0,0 +1,124 @@
+package net.ornithemc.keratin.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.gradle.api.services.BuildServiceParameters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+public class ClassPathIndexTest {
+
+	@TempDir
+	File directory;
+
+	private ClassPathIndex index;
+	private File input;
+	private File first;
+	private File second;
+	private File shadowed;
+
+	// the input calls l/A, which extends l/B, which is in another library - l/B
+	// is also in a third library, but that one comes later on the class path
+	@BeforeEach
+	public void createJars() throws IOException {
+		index = new ClassPathIndex() {
+
+			@Override
+			public BuildServiceParameters.None getParameters() {
+				return null;
+			}
+		};
+
+		input = jar("input.jar", Map.of("m/Main", caller("m/Main", "l/A")));
+		first = jar("first.jar", Map.of("l/A", type("l/A", "l/B"), "l/Other", type("l/Other", "java/lang/Object")));
+		second = jar("second.jar", Map.of("l/B", type("l/B", "java/lang/Object")));
+		shadowed = jar("shadowed.jar", Map.of("l/B", type("l/B", "java/lang/Number"), "l/C", type("l/C", "java/lang/Object")));
+	}
+
+	@Test
+	public void findsLibrariesThatProvideTheHierarchy() throws IOException {
+		assertEquals(List.of(first, second, shadowed), index.findRequiredLibraries(input, List.of(first, second, shadowed)));
+		assertEquals(List.of(first), index.findRequiredLibraries(input, List.of(first)));
+	}
+
+	@Test
+	public void writesOnlyTheRequiredClasses() throws IOException {
+		File output = new File(directory, "classpath.jar");
+		index.writeRequiredClasses(input, List.of(first, second, shadowed), output);
+
+		Map<String, byte[]> classes = read(output);
+
+		assertEquals(Set.of("l/A.class", "l/B.class"), classes.keySet());
+		// the first library to provide a class wins, as it would on a class path
+		assertArrayEquals(read(second).get("l/B.class"), classes.get("l/B.class"));
+		assertArrayEquals(read(first).get("l/A.class"), classes.get("l/A.class"));
+	}
+
+	private File jar(String name, Map<String, byte[]> classes) throws IOException {
+		File jar = new File(directory, name);
+
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar.toPath()))) {
+			for (Map.Entry<String, byte[]> e : new TreeMap<>(classes).entrySet()) {
+				zos.putNextEntry(new ZipEntry(e.getKey() + ".class"));
+				zos.write(e.getValue());
+				zos.closeEntry();
+			}
+		}
+
+		return jar;
+	}
+
+	private static Map<String, byte[]> read(File jar) throws IOException {
+		try (ZipFile zip = new ZipFile(jar)) {
+			return zip.stream().collect(Collectors.toMap(ZipEntry::getName, entry -> {
+				try (InputStream is = zip.getInputStream(entry)) {
+					return is.readAllBytes();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			}));
+		}
+	}
+
+	private static byte[] type(String name, String superName) {
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, superName, null);
+		writer.visitEnd();
+
+		return writer.toByteArray();
+	}
+
+	private static byte[] caller(String name, String callee) {
+		ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+
+		MethodVisitor call = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "call", "()V", null, null);
+		call.visitCode();
+		call.visitMethodInsn(Opcodes.INVOKESTATIC, callee, "get", "()V", false);
+		call.visitInsn(Opcodes.RETURN);
+		call.visitMaxs(0, 0);
+		call.visitEnd();
+
+		writer.visitEnd();
+
+		return writer.toByteArray();
+	}
+}
@@ -0,0 +1,126 @@
+package net.ornithemc.keratin.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+public class DecompiledSourceIndexTest {
+
+	@TempDir
+	File directory;
+
+	private File sources;
+	private DecompiledSourceIndex previous;
+
+	@BeforeEach
+	public void createIndex() throws IOException {
+		sources = new File(directory, "sources");
+
+		for (String className : classes(false, "Ljava/lang/String;", 0).keySet()) {
+			File source = DecompiledSourceIndex.getSourceFile(sources, className);
+			source.getParentFile().mkdirs();
+			source.createNewFile();
+		}
+
+		previous = index(classes(false, "Ljava/lang/String;", 0));
+	}
+
+	@Test
+	public void changesInIndirectSuperClassesAffectSubClasses() throws IOException {
+		DecompiledSourceIndex index = index(classes(true, "Ljava/lang/String;", 0));
+
+		assertEquals(Set.of("a/A", "a/B", "a/C"), index.findChanged(previous, sources));
+	}
+
+	@Test
+	public void signatureChangesAffectReferencingClasses() throws IOException {
+		// the bytes of the calling class do not change, only the generic
+		// signature of the method it calls does
+		DecompiledSourceIndex index = index(classes(false, "Ljava/lang/Integer;", 0));
+
+		assertEquals(Set.of("b/D", "b/E"), index.findChanged(previous, sources));
+	}
+
+	@Test
+	public void codeChangesDoNotAffectReferencingClasses() throws IOException {
+		DecompiledSourceIndex index = index(classes(false, "Ljava/lang/String;", 1));
+
+		assertEquals(Set.of("b/E"), index.findChanged(previous, sources));
+	}
+
+	private DecompiledSourceIndex index(Map<String, byte[]> classes) throws IOException {
+		File jar = File.createTempFile("classes", ".jar", directory);
+
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(jar.toPath()))) {
+			for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+				zos.putNextEntry(new ZipEntry(e.getKey() + ".class"));
+				zos.write(e.getValue());
+				zos.closeEntry();
+			}
+		}
+
+		return DecompiledSourceIndex.create("test", jar);
+	}
+
+	// a/C extends a/B extends a/A, and b/D calls a method in b/E
+	private static Map<String, byte[]> classes(boolean changeA, String elementType, int codeOfE) {
+		Map<String, byte[]> classes = new TreeMap<>();
+
+		ClassWriter a = writer("a/A", "java/lang/Object");
+		if (changeA) {
+			a.visitField(Opcodes.ACC_PUBLIC, "added", "I", null, null).visitEnd();
+		}
+		classes.put("a/A", finish(a));
+		classes.put("a/B", finish(writer("a/B", "a/A")));
+		classes.put("a/C", finish(writer("a/C", "a/B")));
+
+		ClassWriter d = writer("b/D", "java/lang/Object");
+		MethodVisitor call = d.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "call", "()Ljava/lang/Object;", null, null);
+		call.visitCode();
+		call.visitMethodInsn(Opcodes.INVOKESTATIC, "b/E", "get", "()Ljava/util/List;", false);
+		call.visitInsn(Opcodes.ARETURN);
+		call.visitMaxs(0, 0);
+		call.visitEnd();
+		classes.put("b/D", finish(d));
+
+		ClassWriter e = writer("b/E", "java/lang/Object");
+		MethodVisitor get = e.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "get", "()Ljava/util/List;", "()Ljava/util/List<" + elementType + ">;", null);
+		get.visitCode();
+		for (int i = 0; i < codeOfE; i++) {
+			get.visitInsn(Opcodes.NOP);
+		}
+		get.visitInsn(Opcodes.ACONST_NULL);
+		get.visitInsn(Opcodes.ARETURN);
+		get.visitMaxs(0, 0);
+		get.visitEnd();
+		classes.put("b/E", finish(e));
+
+		return classes;
+	}
+
+	private static ClassWriter writer(String name, String superName) {
+		ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, superName, null);
+
+		return writer;
+	}
+
+	private static byte[] finish(ClassWriter writer) {
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+}
@@ -0,0 +1,131 @@
+package net.ornithemc.keratin.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class HttpCacheTest {
+
+	private static final String ETAG = "\"v1\"";
+
+	@TempDir
+	File directory;
+
+	private HttpServer server;
+	private List<Integer> responses;
+
+	private volatile String body;
+	private volatile boolean failing;
+
+	@BeforeEach
+	public void startServer() throws IOException {
+		responses = new CopyOnWriteArrayList<>();
+		body = "hello";
+		failing = false;
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		if (failing) {
+			respond(exchange, 500, null);
+		} else if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+			respond(exchange, 304, null);
+		} else {
+			exchange.getResponseHeaders().add("ETag", ETAG);
+			respond(exchange, 200, body);
+		}
+	}
+
+	private void respond(HttpExchange exchange, int status, String content) throws IOException {
+		responses.add(status);
+
+		if (content == null) {
+			exchange.sendResponseHeaders(status, -1);
+		} else {
+			byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status, bytes.length);
+
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(bytes);
+			}
+		}
+
+		exchange.close();
+	}
+
+	private String url(String path) {
+		return "http://127.0.0.1:%d/%s".formatted(server.getAddress().getPort(), path);
+	}
+
+	@Test
+	public void revalidatesCachedCopy() throws IOException {
+		HttpCache cache = new HttpCache(directory, false);
+
+		assertEquals("hello", cache.readString(url("metadata")));
+
+		// an unchanged resource is not sent again
+		body = "changed";
+
+		assertEquals("hello", cache.readString(url("metadata")));
+		assertEquals(List.of(200, 304), responses);
+	}
+
+	@Test
+	public void fallsBackToCachedCopyOnFailure() throws IOException {
+		HttpCache cache = new HttpCache(directory, false);
+
+		assertEquals("hello", cache.readString(url("metadata")));
+
+		failing = true;
+
+		assertEquals("hello", cache.readString(url("metadata")));
+		assertThrows(IOException.class, () -> cache.readString(url("uncached")));
+		assertEquals(List.of(200, 500, 500), responses);
+	}
+
+	@Test
+	public void readsImmutableResourcesOnce() throws IOException {
+		HttpCache cache = new HttpCache(directory, false);
+
+		assertEquals("hello", cache.readImmutableString(url("artifact.jar.sha1")));
+		assertEquals("hello", cache.readImmutableString(url("artifact.jar.sha1")));
+		assertEquals(List.of(200), responses);
+	}
+
+	@Test
+	public void usesOnlyCachedCopiesWhenOffline() throws IOException {
+		new HttpCache(directory, false).readString(url("metadata"));
+
+		HttpCache cache = new HttpCache(directory, true);
+
+		assertEquals("hello", cache.readString(url("metadata")));
+		assertThrows(IOException.class, () -> cache.readString(url("uncached")));
+
+		cache.prefetch(List.of(url("uncached")));
+
+		assertEquals(List.of(200), responses);
+	}
+}
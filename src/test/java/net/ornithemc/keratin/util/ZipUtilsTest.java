@@ -0,0 +1,154 @@
+package net.ornithemc.keratin.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ZipUtilsTest {
+
+	private static final byte[] STORED = "stored contents".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] DEFLATED = "deflated contents, deflated contents, deflated contents".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] DESCRIPTOR = "contents followed by a data descriptor".getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	File directory;
+
+	@Test
+	public void copiesStoredDeflatedAndDataDescriptorEntries() throws IOException {
+		File input = new File(directory, "input.jar");
+		File output = new File(directory, "output.jar");
+
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(input.toPath()))) {
+			// sizes and crc known up front, so neither of these has a data descriptor
+			ZipEntry stored = new ZipEntry("stored.txt");
+			stored.setMethod(ZipEntry.STORED);
+			stored.setSize(STORED.length);
+			stored.setCompressedSize(STORED.length);
+			stored.setCrc(crc(STORED));
+			put(zos, stored, STORED);
+
+			ZipEntry deflated = new ZipEntry("deflated.txt");
+			deflated.setMethod(ZipEntry.DEFLATED);
+			deflated.setSize(DEFLATED.length);
+			deflated.setCompressedSize(deflate(DEFLATED));
+			deflated.setCrc(crc(DEFLATED));
+			put(zos, deflated, DEFLATED);
+
+			// sizes and crc only follow the data
+			put(zos, new ZipEntry("descriptor.txt"), DESCRIPTOR);
+			put(zos, new ZipEntry("skipped.txt"), STORED);
+		}
+
+		ZipUtils.copyEntries(input, output, name -> !name.equals("skipped.txt"));
+
+		try (ZipFile in = new ZipFile(input); ZipFile out = new ZipFile(output)) {
+			assertEquals(List.of("stored.txt", "deflated.txt", "descriptor.txt"), out.stream().map(ZipEntry::getName).toList());
+			assertNull(out.getEntry("skipped.txt"));
+
+			for (String name : List.of("stored.txt", "deflated.txt", "descriptor.txt")) {
+				ZipEntry inEntry = in.getEntry(name);
+				ZipEntry outEntry = out.getEntry(name);
+
+				// the compressed bytes are copied as they are
+				assertEquals(inEntry.getMethod(), outEntry.getMethod());
+				assertEquals(inEntry.getCompressedSize(), outEntry.getCompressedSize());
+				assertEquals(inEntry.getCrc(), outEntry.getCrc());
+				assertArrayEquals(read(in, inEntry), read(out, outEntry));
+			}
+		}
+
+		// the local headers must be valid on their own too
+		try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(output.toPath()))) {
+			List<String> names = new ArrayList<>();
+
+			for (ZipEntry entry; (entry = zis.getNextEntry()) != null; ) {
+				names.add(entry.getName());
+
+				byte[] expected = switch (entry.getName()) {
+					case "stored.txt" -> STORED;
+					case "deflated.txt" -> DEFLATED;
+					default -> DESCRIPTOR;
+				};
+
+				assertArrayEquals(expected, zis.readAllBytes());
+			}
+
+			assertEquals(List.of("stored.txt", "deflated.txt", "descriptor.txt"), names);
+		}
+	}
+
+	@Test
+	public void copiesArchivesWithMoreEntriesThanTheEndRecordCanCount() throws IOException {
+		File input = new File(directory, "input.jar");
+		File output = new File(directory, "output.jar");
+
+		int entries = 0x10000 + 16;
+
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(input.toPath()))) {
+			for (int i = 0; i < entries; i++) {
+				put(zos, new ZipEntry("entry" + i + ".txt"), STORED);
+			}
+		}
+
+		ZipUtils.copyEntries(input, output, name -> true);
+
+		try (ZipFile out = new ZipFile(output)) {
+			assertEquals(entries, out.size());
+			assertArrayEquals(STORED, read(out, out.getEntry("entry" + (entries - 1) + ".txt")));
+		}
+	}
+
+	private static void put(ZipOutputStream zos, ZipEntry entry, byte[] contents) throws IOException {
+		zos.putNextEntry(entry);
+		zos.write(contents);
+		zos.closeEntry();
+	}
+
+	private static byte[] read(ZipFile zip, ZipEntry entry) throws IOException {
+		try (InputStream is = zip.getInputStream(entry)) {
+			return is.readAllBytes();
+		}
+	}
+
+	private static long crc(byte[] contents) {
+		CRC32 crc = new CRC32();
+		crc.update(contents);
+
+		return crc.getValue();
+	}
+
+	// the compressed size of the given contents as zip output streams deflate them
+	private static long deflate(byte[] contents) {
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		deflater.setInput(contents);
+		deflater.finish();
+
+		byte[] buffer = new byte[contents.length + 64];
+		long size = 0;
+
+		while (!deflater.finished()) {
+			size += deflater.deflate(buffer);
+		}
+
+		deflater.end();
+
+		return size;
+	}
+}